@@ -1,23 +1,32 @@
 package ca.michael_cunningham.currencyconverter;
 
 import android.app.Activity;
+import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
+import android.content.IntentFilter;
 import android.content.SharedPreferences;
 import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
+import android.view.ViewTreeObserver;
+import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
 import ca.michael_cunningham.currencyconverter.interfaces.*;
+import ca.michael_cunningham.currencyconverter.rates.RateStore;
 import ca.michael_cunningham.currencyconverter.tools.Font;
+import ca.michael_cunningham.currencyconverter.tools.RefreshScheduler;
+import ca.michael_cunningham.currencyconverter.tools.Tracer;
 
 /**
  * MainActivity
@@ -29,11 +38,18 @@ import ca.michael_cunningham.currencyconverter.tools.Font;
  * @since   December 2nd, 2014
  * @version v1.0
  */
-public class MainActivity extends Activity implements OnTaskStarted, OnTaskCompleted
+public class MainActivity extends Activity implements OnTaskStarted, OnTaskCompleted, OnRefreshDue
 {
     // ------------------------------------------------------------------- global class constants
-    static final int POPUP_CHANGE_DEFAULTS_SEND_CODE = 0;
-    static final int POPUP_CHANGE_SETTINGS_SEND_CODE = 1;
+    static final int    POPUP_CHANGE_DEFAULTS_SEND_CODE = 0;
+    static final int    POPUP_CHANGE_SETTINGS_SEND_CODE = 1;
+    static final String LOG_TAG                         = "MainActivity";
+    static final float  STALE_ALPHA                     = 0.5f;
+    static final long   AUTO_CONVERT_DELAY_MS           = 300;
+    static final long   REFRESH_MIN_INTERVAL_MS         = 60 * 1000;
+    static final long   REFRESH_MAX_INTERVAL_MS         = 12 * 60 * 1000;
+    static final long   REFRESH_MAX_BACKOFF_MS          = 30 * 60 * 1000;
+    static final long   DEFERRED_REFRESH_DELAY_MS       = 2000;
 
     // ------------------------------------------------------------------- private global variables
     private YahooFinanceAPI     apiInterface;
@@ -51,7 +67,17 @@ public class MainActivity extends Activity implements OnTaskStarted, OnTaskCompl
     private Button              btnConvert;
     private Menu                mnuOptions;
     private boolean             isMobileDataAllowed;
+    private boolean             isAutoConvert;
+    private Handler             objHandler;
+    private Runnable            runAutoConvert;
+    private RefreshScheduler    objScheduler;
+    private BroadcastReceiver   rcvConnectivity;
+    private Runnable            runDeferredRefresh;
+    private boolean             isRefreshDeferred;
+    private boolean             isReceiverRegistered;
     private Toast               tstToast;
+    private long                lngCreatedAt;
+    private boolean             isFirstRateShown;
 
     // ------------------------------------------------------------------- override methods
     /**
@@ -66,6 +92,10 @@ public class MainActivity extends Activity implements OnTaskStarted, OnTaskCompl
         super.onCreate(siState);
         setContentView(R.layout.main);
 
+        // start the clock for the time to first frame and time to first rate
+        lngCreatedAt = SystemClock.uptimeMillis();
+        logTimeToFirstFrame();
+
         // initialize global objects
         objCManager    = (ConnectivityManager) getSystemService(Context.CONNECTIVITY_SERVICE);
         shpPreferences = getSharedPreferences("StoredData", MODE_PRIVATE);
@@ -93,8 +123,9 @@ public class MainActivity extends Activity implements OnTaskStarted, OnTaskCompl
         lblDateValue.setTypeface(Font.getTypeFace(this, "fonts/Roboto-ThinItalic.ttf"));
         lblTimeValue.setTypeface(Font.getTypeFace(this, "fonts/Roboto-ThinItalic.ttf"));
 
-        // is mobile data allowed?
+        // is mobile data allowed? should a currency change convert on its own?
         isMobileDataAllowed = shpPreferences.getBoolean("swtRefreshOnlyOnWiFi", true);
+        isAutoConvert       = shpPreferences.getBoolean("swtAutoConvert", false);
 
         // set up array adapter for spinners
         ArrayAdapter aryAdapter = new ArrayAdapter<String>(this, android.R.layout.simple_spinner_item, aryCurrencies);
@@ -117,16 +148,79 @@ public class MainActivity extends Activity implements OnTaskStarted, OnTaskCompl
         spnCurrencyFrom.setSelection(shpPreferences.getInt("defaultCurrencyFromIndex", 0));
         spnCurrencyTo.setSelection(shpPreferences.getInt("defaultCurrencyToIndex", 0));
 
-        // initialize listener interfaces
-        OnTaskCompleted onTaskCompleted = this;
-        OnTaskStarted   onTaskStarted   = this;
+        // a change of currency converts on its own once the spinners have settled
+        objHandler     = new Handler();
+        runAutoConvert = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                onClickBtnConvert();
+            }
+        };
+
+        // a refresh asked for without an allowed network waits for one, however many times it was asked for
+        rcvConnectivity = new BroadcastReceiver()
+        {
+            @Override
+            public void onReceive(Context ctxContext, Intent intent)
+            {
+                onConnectivityChanged();
+            }
+        };
 
-        // pull out the converter object from the saved instance state if it's there
-        if (siState != null)
+        runDeferredRefresh = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                flushDeferredRefresh();
+            }
+        };
+
+        AdapterView.OnItemSelectedListener onCurrencySelected = new AdapterView.OnItemSelectedListener()
+        {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id)
+            {
+                onSelectSpnCurrency();
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent)
+            {
+            }
+        };
+
+        spnCurrencyFrom.setOnItemSelectedListener(onCurrencySelected);
+        spnCurrencyTo.setOnItemSelectedListener(onCurrencySelected);
+
+        // the engine outlives a configuration change, along with the API and its tasks in flight
+        RateEngineFragment objEngine = RateEngineFragment.attach(this);
+
+        apiInterface = objEngine.getApi();
+
+        // keep the cache warm in the background, within the interval the rates live for, so a
+        // convert never has to wait on the network, the scheduler is kept by the engine so a
+        // rotation neither resets its backoff nor makes it wait a whole interval again
+        objScheduler = objEngine.getScheduler(REFRESH_MIN_INTERVAL_MS, REFRESH_MAX_INTERVAL_MS, REFRESH_MAX_BACKOFF_MS);
+
+        // with no engine to take it from, ie. after the process was killed, pull the converter
+        // object out of the saved instance state, it only carries the selection and the last
+        // refresh, so the rates are read back from the cache and the selection converted again
+        if ((apiInterface == null) && (siState != null))
         {
             apiInterface = siState.getParcelable("apiInterface");
-            apiInterface.setListeners(onTaskCompleted, onTaskStarted);
+            apiInterface.setContext(this);
+            objEngine.setApi(apiInterface);
+            apiInterface.loadCache();
+        }
+
+        if (siState != null)
+        {
+            apiInterface.setTriangulateRates(shpPreferences.getBoolean("swtTriangulateRates", true));
             btnConvert.setEnabled(siState.getBoolean("btnConvertState"));
+            isRefreshDeferred = siState.getBoolean("isRefreshDeferred");
 
             lblRate.setText(siState.getString("lblRateValue"));
             lblDateValue.setText(siState.getString("lblDateValue"));
@@ -143,20 +237,48 @@ public class MainActivity extends Activity implements OnTaskStarted, OnTaskCompl
         else
         {
             apiInterface = new YahooFinanceAPI(this);
-            apiInterface.setListeners(onTaskCompleted, onTaskStarted);
+            objEngine.setApi(apiInterface);
+            apiInterface.setTriangulateRates(shpPreferences.getBoolean("swtTriangulateRates", true));
             apiInterface.setLastRefreshed(shpPreferences.getString("lblLastRefreshed", getResources().getString(R.string.lblLastRefreshedValue)));
 
-            if (apiInterface.isCacheValid())
-            {
-                onClickBtnConvert();
-            }
-            else
+            // show a placeholder while the cache loads, the convert is held until it has
+            lblLastRefreshedValue.setText(apiInterface.getLastRefreshed(apiInterface.getState()));
+            setViewsToLoading();
+
+            apiInterface.loadCache();
+            onClickBtnConvert();
+
+            // get the connection to Yahoo ready while the cache loads
+            if (hasAllowedNetwork())
             {
-                onClickMnuRefresh();
+                apiInterface.prewarm();
             }
         }
     }
 
+    /**
+     * Starts the background refreshes while the activity is visible
+     */
+    @Override
+    protected void onStart()
+    {
+        super.onStart();
+        objScheduler.start();
+        registerConnectivityReceiver();
+    }
+
+    /**
+     * Stops the background refreshes once the activity is no longer visible
+     */
+    @Override
+    protected void onStop()
+    {
+        super.onStop();
+        objScheduler.stop();
+        unregisterConnectivityReceiver();
+        objHandler.removeCallbacks(runDeferredRefresh);
+    }
+
     /**
      * Just before Activity death, such as screen orientation change, put items into
      * a saved instance state bundle object which will be preserved and loaded back either on
@@ -176,6 +298,7 @@ public class MainActivity extends Activity implements OnTaskStarted, OnTaskCompl
         siState.putString("lblBidValue", lblBidValue.getText().toString());
         siState.putString("lblLastRefreshedValue", lblLastRefreshedValue.getText().toString());
         siState.putBoolean("btnConvertState", btnConvert.isEnabled());
+        siState.putBoolean("isRefreshDeferred", isRefreshDeferred);
     }
 
     /**
@@ -192,6 +315,9 @@ public class MainActivity extends Activity implements OnTaskStarted, OnTaskCompl
         // Inflate the menu; this adds items to the action bar if it is present.
         getMenuInflater().inflate(R.menu.menu_main, menu);
 
+        // the metrics are for measuring builds, not for the people using them
+        menu.findItem(R.id.action_show_metrics).setVisible(BuildConfig.DEBUG);
+
         return super.onCreateOptionsMenu(menu);
     }
 
@@ -219,6 +345,10 @@ public class MainActivity extends Activity implements OnTaskStarted, OnTaskCompl
             case (R.id.action_refresh_data) :
                 onClickMnuRefresh();
             break;
+
+            case (R.id.action_show_metrics) :
+                startActivity(new Intent(getPackageName() + ".POPUP_METRICS"));
+            break;
         }
 
         return super.onOptionsItemSelected(item);
@@ -249,7 +379,7 @@ public class MainActivity extends Activity implements OnTaskStarted, OnTaskCompl
                     spnCurrencyFrom.setSelection(i.getIntExtra("spnCurrencyFromValue", 0), true);
                     spnCurrencyTo.setSelection(i.getIntExtra("spnCurrencyToValue", 0), true);
 
-                    if (apiInterface.isCacheValid())
+                    if (!apiInterface.isCacheLoaded() || apiInterface.isCacheValid())
                     {
                         onClickBtnConvert();
                     }
@@ -263,6 +393,15 @@ public class MainActivity extends Activity implements OnTaskStarted, OnTaskCompl
                 case POPUP_CHANGE_SETTINGS_SEND_CODE :
                     isMobileDataAllowed = i.getBooleanExtra("swtRefreshOnlyOnWiFi", true);
                     editor.putBoolean("swtRefreshOnlyOnWiFi", isMobileDataAllowed);
+                    editor.putBoolean("swtTriangulateRates", i.getBooleanExtra("swtTriangulateRates", true));
+
+                    isAutoConvert = i.getBooleanExtra("swtAutoConvert", false);
+                    editor.putBoolean("swtAutoConvert", isAutoConvert);
+
+                    apiInterface.setTriangulateRates(i.getBooleanExtra("swtTriangulateRates", true));
+
+                    // mobile data may have just been allowed
+                    onConnectivityChanged();
                 break;
             }
 
@@ -278,13 +417,24 @@ public class MainActivity extends Activity implements OnTaskStarted, OnTaskCompl
     @Override
     public void onTaskStarted(byte type)
     {
+        Tracer.begin("onTaskStarted");
+
         if (type == YahooFinanceAPI.TASK_TYPE_REFRESH)
         {
             setRefreshActionButtonState(true);
+
+            // keep serving the rates on screen, however stale, until the new ones arrive
+            if (apiInterface.isCacheValid())
+            {
+                Tracer.end("onTaskStarted");
+                return;
+            }
+
             lblLastRefreshedValue.setText(getResources().getString(R.string.sharedLoading));
         }
 
         setViewsToLoading();
+        Tracer.end("onTaskStarted");
     }
 
     /**
@@ -295,23 +445,77 @@ public class MainActivity extends Activity implements OnTaskStarted, OnTaskCompl
     @Override
     public void onTaskCompleted(byte type)
     {
+        Tracer.begin("onTaskCompleted");
+
         switch (type)
         {
             case (YahooFinanceAPI.TASK_TYPE_REFRESH) :
                 // construct editor to edit SharedPreferences object content
-                SharedPreferences.Editor editor = shpPreferences.edit();
+                SharedPreferences.Editor editor   = shpPreferences.edit();
+                RateStore.State          objState = apiInterface.getState();
 
                 setRefreshActionButtonState(false);
                 onClickBtnConvert();
 
-                editor.putString("lblLastRefreshed", apiInterface.getLastRefreshed());
+                // every refresh, scheduled or not, moves the next scheduled one
+                if (apiInterface.hasLastRefreshFailed(objState))
+                {
+                    objScheduler.onRefreshFailed();
+                }
+                else
+                {
+                    objScheduler.onRefreshed(apiInterface.getLastMove(objState));
+                }
+
+                Log.d(LOG_TAG, "Refresh done, coalesced so far: " + apiInterface.getCoalescedRefreshCount()
+                        + " refreshes, " + apiInterface.getCoalescedConvertCount() + " converts");
+
+                editor.putString("lblLastRefreshed", apiInterface.getLastRefreshed(objState));
                 editor.apply();
             break;
 
             case (YahooFinanceAPI.TASK_TYPE_CONVERT) :
                 setViewsToLatestInfo();
+
+                // the stale rate is already showing, quietly fetch the expired ones behind it
+                if (apiInterface.isStale(apiInterface.getState()) && hasAllowedNetwork())
+                {
+                    apiInterface.revalidate();
+                }
+            break;
+
+            case (YahooFinanceAPI.TASK_TYPE_LOAD) :
+                // the held convert has already been run if there was a cache
+                if (!apiInterface.isCacheValid())
+                {
+                    onClickMnuRefresh();
+                }
+                else if (hasAllowedNetwork())
+                {
+                    apiInterface.revalidate();
+                }
             break;
         }
+
+        Tracer.end("onTaskCompleted");
+    }
+
+    /**
+     * Block of code which is run when the scheduler decides a background refresh is due, it is
+     * only run on a network the settings allow
+     */
+    @Override
+    public void onRefreshDue()
+    {
+        if (hasAllowedNetwork())
+        {
+            apiInterface.refresh();
+        }
+        else
+        {
+            objScheduler.onRefreshSkipped();
+            deferRefresh();
+        }
     }
 
     // ------------------------------------------------------------------- protected event handlers
@@ -320,12 +524,25 @@ public class MainActivity extends Activity implements OnTaskStarted, OnTaskCompl
      */
     protected void onClickBtnConvert()
     {
-        apiInterface.getJSONParser().execute(
-            aryCurrencies[spnCurrencyFrom.getSelectedItemPosition()],
-            aryCurrencies[spnCurrencyTo.getSelectedItemPosition()]
+        apiInterface.convert(
+            spnCurrencyFrom.getSelectedItemPosition(),
+            spnCurrencyTo.getSelectedItemPosition()
         );
     }
 
+    /**
+     * Event handler called when the user selects a currency in either spinner, converts after a
+     * short delay if auto convert is on, so scrolling through currencies only converts once
+     */
+    protected void onSelectSpnCurrency()
+    {
+        if (isAutoConvert)
+        {
+            objHandler.removeCallbacks(runAutoConvert);
+            objHandler.postDelayed(runAutoConvert, AUTO_CONVERT_DELAY_MS);
+        }
+    }
+
     /**
      * Event handler called when the user clicks the refresh button in the action bar
      */
@@ -333,8 +550,24 @@ public class MainActivity extends Activity implements OnTaskStarted, OnTaskCompl
     {
         if (isAllowedInternetAccess())
         {
-            apiInterface.invalidateCache();
-            apiInterface.getJSONParser().execute(aryCurrencies);
+            apiInterface.refresh();
+        }
+        else
+        {
+            deferRefresh();
+        }
+    }
+
+    /**
+     * Event handler called when the network changes, a deferred refresh is run once an allowed
+     * network has been up for a moment, so a flapping connection only refreshes once
+     */
+    protected void onConnectivityChanged()
+    {
+        if (isRefreshDeferred && hasAllowedNetwork())
+        {
+            objHandler.removeCallbacks(runDeferredRefresh);
+            objHandler.postDelayed(runDeferredRefresh, DEFERRED_REFRESH_DELAY_MS);
         }
     }
 
@@ -365,6 +598,8 @@ public class MainActivity extends Activity implements OnTaskStarted, OnTaskCompl
                 activityCode  = POPUP_CHANGE_SETTINGS_SEND_CODE;
 
                 intent.putExtra("refreshOnlyOnWiFi", shpPreferences.getBoolean("swtRefreshOnlyOnWiFi", true));
+                intent.putExtra("triangulateRates", shpPreferences.getBoolean("swtTriangulateRates", true));
+                intent.putExtra("autoConvert", shpPreferences.getBoolean("swtAutoConvert", false));
             break;
         }
 
@@ -372,6 +607,55 @@ public class MainActivity extends Activity implements OnTaskStarted, OnTaskCompl
         startActivityForResult(intent, activityCode);
     }
 
+    /**
+     * Holds a refresh until an allowed network is connected, refreshes asked for in the meantime
+     * are folded into the same one
+     */
+    private void deferRefresh()
+    {
+        isRefreshDeferred = true;
+
+        registerConnectivityReceiver();
+    }
+
+    /**
+     * Runs the deferred refresh, if the network it was waiting for is still up
+     */
+    private void flushDeferredRefresh()
+    {
+        if (isRefreshDeferred && hasAllowedNetwork())
+        {
+            isRefreshDeferred = false;
+
+            unregisterConnectivityReceiver();
+            apiInterface.refresh();
+        }
+    }
+
+    /**
+     * Listens for network changes while a refresh is deferred
+     */
+    private void registerConnectivityReceiver()
+    {
+        if (isRefreshDeferred && !isReceiverRegistered)
+        {
+            registerReceiver(rcvConnectivity, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+            isReceiverRegistered = true;
+        }
+    }
+
+    /**
+     * Stops listening for network changes
+     */
+    private void unregisterConnectivityReceiver()
+    {
+        if (isReceiverRegistered)
+        {
+            unregisterReceiver(rcvConnectivity);
+            isReceiverRegistered = false;
+        }
+    }
+
     /**
      * Sets the refresh icon to a loading state, or back to the original
      *
@@ -404,60 +688,116 @@ public class MainActivity extends Activity implements OnTaskStarted, OnTaskCompl
      */
     private boolean isAllowedInternetAccess()
     {
-        NetworkInfo objNetworkMobile = objCManager.getNetworkInfo(ConnectivityManager.TYPE_MOBILE);
-        NetworkInfo objNetworkWiFi   = objCManager.getNetworkInfo(ConnectivityManager.TYPE_WIFI);
+        if (hasAllowedNetwork())
+        {
+            return true;
+        }
 
         if (isMobileDataAllowed)
         {
-            if (objNetworkMobile.isConnected() || objNetworkWiFi.isConnected())
-            {
-                return true;
-            }
-            else
-            {
-                showAToast(getResources().getString(R.string.notOnWiFiOrMobile));
-            }
+            showAToast(getResources().getString(R.string.notOnWiFiOrMobile));
         }
         else
         {
-            if (objNetworkWiFi.isConnected())
-            {
-                return true;
-            }
-            else
-            {
-                showAToast(getResources().getString(R.string.notOnWiFi));
-            }
+            showAToast(getResources().getString(R.string.notOnWiFi));
         }
 
         return false;
     }
 
+    /**
+     * If a network the settings allow is connected, without telling the user about it
+     *
+     * @return - true/false if an allowed network is connected
+     */
+    private boolean hasAllowedNetwork()
+    {
+        NetworkInfo objNetworkMobile = objCManager.getNetworkInfo(ConnectivityManager.TYPE_MOBILE);
+        NetworkInfo objNetworkWiFi   = objCManager.getNetworkInfo(ConnectivityManager.TYPE_WIFI);
+
+        if (isMobileDataAllowed)
+        {
+            return objNetworkMobile.isConnected() || objNetworkWiFi.isConnected();
+        }
+
+        return objNetworkWiFi.isConnected();
+    }
+
     /**
      * Sets the views on the main activity to a loading state
      */
     private void setViewsToLoading()
     {
+        Tracer.begin("setViewsToLoading");
+
         btnConvert.setEnabled(false);
         lblRate.setText(R.string.sharedLoading);
         lblDateValue.setText(R.string.sharedLoading);
         lblTimeValue.setText(R.string.sharedLoading);
         lblAskValue.setText(R.string.sharedLoading);
         lblBidValue.setText(R.string.sharedLoading);
+
+        Tracer.end("setViewsToLoading");
     }
 
     /**
-     * Sets the views to get the latest info from the API class
+     * Sets the views to get the latest info from the API class, dimming them if the rate is stale
      */
     private void setViewsToLatestInfo()
     {
+        Tracer.begin("setViewsToLatestInfo");
+
+        // every view is filled from the one state, a refresh landing in between waits for the next update
+        RateStore.State objState = apiInterface.getState();
+        boolean         isStale  = apiInterface.isStale(objState);
+        float           alpha    = isStale ? STALE_ALPHA : 1f;
+
         btnConvert.setEnabled(true);
-        lblRate.setText(apiInterface.getRate());
-        lblDateValue.setText(apiInterface.getDate());
-        lblTimeValue.setText(apiInterface.getTime());
-        lblAskValue.setText(apiInterface.getAsk());
-        lblBidValue.setText(apiInterface.getBid());
-        lblLastRefreshedValue.setText(apiInterface.getLastRefreshed());
+        lblRate.setText(apiInterface.getRate(objState));
+        lblDateValue.setText(apiInterface.getDate(objState));
+        lblTimeValue.setText(apiInterface.getTime(objState));
+        lblAskValue.setText(apiInterface.getAsk(objState));
+        lblBidValue.setText(apiInterface.getBid(objState));
+        lblLastRefreshedValue.setText(apiInterface.getLastRefreshed(objState));
+
+        lblRate.setAlpha(alpha);
+        lblDateValue.setAlpha(alpha);
+        lblTimeValue.setAlpha(alpha);
+        lblAskValue.setAlpha(alpha);
+        lblBidValue.setAlpha(alpha);
+
+        if (isStale)
+        {
+            lblLastRefreshedValue.append(getResources().getString(R.string.lblStaleSuffix));
+        }
+
+        if (!isFirstRateShown)
+        {
+            isFirstRateShown = true;
+            Log.i(LOG_TAG, "Time to first rate: " + (SystemClock.uptimeMillis() - lngCreatedAt) + "ms");
+        }
+
+        Tracer.end("setViewsToLatestInfo");
+    }
+
+    /**
+     * Logs the time from onCreate until the first frame is about to be drawn
+     */
+    private void logTimeToFirstFrame()
+    {
+        final View objDecorView = getWindow().getDecorView();
+
+        objDecorView.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener()
+        {
+            @Override
+            public boolean onPreDraw()
+            {
+                objDecorView.getViewTreeObserver().removeOnPreDrawListener(this);
+                Log.i(LOG_TAG, "Time to first frame: " + (SystemClock.uptimeMillis() - lngCreatedAt) + "ms");
+
+                return true;
+            }
+        });
     }
 
     /**
@@ -0,0 +1,252 @@
+package ca.michael_cunningham.currencyconverter;
+
+import android.app.Activity;
+import android.app.Fragment;
+import android.app.FragmentManager;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import java.util.ArrayList;
+import ca.michael_cunningham.currencyconverter.interfaces.*;
+import ca.michael_cunningham.currencyconverter.tools.RefreshScheduler;
+
+/**
+ * RateEngineFragment
+ * ------------------------
+ *
+ * A headless fragment kept across configuration changes, which owns the YahooFinanceAPI and with
+ * it every refresh, load and convert in flight, along with the RefreshScheduler, so its backoff
+ * and its estimate of how fast the market moves survive too. Both only ever talk to this fragment, which
+ * passes each event on to the activity it is attached to. Events raised while no activity is
+ * attached, ie. in the middle of a rotation, are held and replayed to the next one once it has
+ * been created, so a refresh is never lost or fetched a second time. The API holds the application
+ * context, not an activity, so no activity outlives its own lifecycle.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public class RateEngineFragment extends Fragment implements OnTaskStarted, OnTaskCompleted, OnRefreshDue
+{
+    // ------------------------------------------------------------------- private class constants
+    private static final String TAG = "RateEngineFragment";
+
+    // ------------------------------------------------------------------- private global variables
+    private final ArrayList<PendingEvent> lstPending = new ArrayList<PendingEvent>();
+    private YahooFinanceAPI               apiInterface;
+    private RefreshScheduler              objScheduler;
+    private OnTaskStarted                 iListenerTaskStarted;
+    private OnTaskCompleted               iListenerTaskCompleted;
+    private OnRefreshDue                  iListenerRefreshDue;
+
+    // ------------------------------------------------------------------- get methods
+    /**
+     * Get the API kept by the engine
+     *
+     * @return - the API, or null if there is none yet, ie. on the first run or after the process was killed
+     */
+    public YahooFinanceAPI getApi()
+    {
+        return apiInterface;
+    }
+
+    /**
+     * Set the API the engine keeps, the engine becomes the listener of all of its tasks
+     *
+     * @param apiInterface - the API
+     */
+    public void setApi(YahooFinanceAPI apiInterface)
+    {
+        this.apiInterface = apiInterface;
+        this.apiInterface.setListeners(this, this);
+    }
+
+    /**
+     * Get the scheduler kept by the engine, making it the first time, its refreshes are passed
+     * on to the activity so it never holds on to one
+     *
+     * @param lngMinInterval - the shortest interval between refreshes, in milliseconds
+     * @param lngMaxInterval - the longest interval between refreshes, in milliseconds
+     * @param lngMaxBackoff  - the longest delay after failed refreshes, in milliseconds
+     * @return               - the scheduler, stopped if it was just made
+     */
+    public RefreshScheduler getScheduler(long lngMinInterval, long lngMaxInterval, long lngMaxBackoff)
+    {
+        if (objScheduler == null)
+        {
+            objScheduler = new RefreshScheduler(new Handler(Looper.getMainLooper()), new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    onRefreshDue();
+                }
+            }, lngMinInterval, lngMaxInterval, lngMaxBackoff);
+        }
+
+        return objScheduler;
+    }
+
+    // ------------------------------------------------------------------- public methods
+    /**
+     * Get the engine of an activity, adding a new one the first time the activity is created
+     *
+     * @param activity - the activity the engine is attached to
+     * @return         - the engine, holding the API of the previous activity if there was one
+     */
+    public static RateEngineFragment attach(Activity activity)
+    {
+        FragmentManager    objManager = activity.getFragmentManager();
+        RateEngineFragment objEngine  = (RateEngineFragment) objManager.findFragmentByTag(TAG);
+
+        if (objEngine == null)
+        {
+            objEngine = new RateEngineFragment();
+
+            objManager.beginTransaction().add(objEngine, TAG).commit();
+        }
+
+        return objEngine;
+    }
+
+    // ------------------------------------------------------------------- override methods
+    /**
+     * Keeps the fragment, and the API with it, when its activity is recreated
+     *
+     * @param siState - the saved instance state bundle
+     */
+    @Override
+    public void onCreate(Bundle siState)
+    {
+        super.onCreate(siState);
+        setRetainInstance(true);
+    }
+
+    /**
+     * Starts passing events on to the activity, its views are only ready once its onCreate() is done
+     *
+     * @param siState - the saved instance state bundle
+     */
+    @Override
+    public void onActivityCreated(Bundle siState)
+    {
+        super.onActivityCreated(siState);
+
+        Activity activity = getActivity();
+
+        iListenerTaskStarted   = (OnTaskStarted) activity;
+        iListenerTaskCompleted = (OnTaskCompleted) activity;
+        iListenerRefreshDue    = (OnRefreshDue) activity;
+
+        // replay, in order, whatever happened while there was no activity to tell
+        ArrayList<PendingEvent> lstReplay = new ArrayList<PendingEvent>(lstPending);
+
+        lstPending.clear();
+
+        for (PendingEvent objEvent : lstReplay)
+        {
+            if (objEvent.isStarted)
+            {
+                onTaskStarted(objEvent.type);
+            }
+            else
+            {
+                onTaskCompleted(objEvent.type);
+            }
+        }
+    }
+
+    /**
+     * Stops passing events on to the activity that is going away, so it is not kept alive
+     */
+    @Override
+    public void onDetach()
+    {
+        super.onDetach();
+
+        iListenerTaskStarted   = null;
+        iListenerTaskCompleted = null;
+        iListenerRefreshDue    = null;
+    }
+
+    /**
+     * Passes a started task on to the activity, or holds it until there is one
+     *
+     * @param type - the type of task which has been started
+     */
+    @Override
+    public void onTaskStarted(byte type)
+    {
+        if (iListenerTaskStarted == null)
+        {
+            lstPending.add(new PendingEvent(true, type));
+
+            return;
+        }
+
+        iListenerTaskStarted.onTaskStarted(type);
+    }
+
+    /**
+     * Passes a completed task on to the activity, or holds it until there is one
+     *
+     * @param type - the type of task which has been completed
+     */
+    @Override
+    public void onTaskCompleted(byte type)
+    {
+        if (iListenerTaskCompleted == null)
+        {
+            lstPending.add(new PendingEvent(false, type));
+
+            return;
+        }
+
+        iListenerTaskCompleted.onTaskCompleted(type);
+    }
+
+    /**
+     * Passes a due refresh on to the activity, without one it is skipped and tried again later
+     */
+    @Override
+    public void onRefreshDue()
+    {
+        if (iListenerRefreshDue == null)
+        {
+            objScheduler.onRefreshSkipped();
+
+            return;
+        }
+
+        iListenerRefreshDue.onRefreshDue();
+    }
+
+    // ------------------------------------------------------------------- private inner class
+    /**
+     * PendingEvent
+     * ------------------------
+     *
+     * A task event raised while no activity was attached
+     *
+     * @author  Michael Cunningham (http://michael-cunningham.ca)
+     * @since   October 18th, 2026
+     * @version v1.1
+     */
+    private static class PendingEvent
+    {
+        private final boolean isStarted;
+        private final byte    type;
+
+        /**
+         * Constructs a new PendingEvent object
+         *
+         * @param isStarted - true if the task started, false if it completed
+         * @param type      - the type of task
+         */
+        private PendingEvent(boolean isStarted, byte type)
+        {
+            this.isStarted = isStarted;
+            this.type      = type;
+        }
+    }
+}
@@ -1,21 +1,33 @@
 package ca.michael_cunningham.currencyconverter;
 
 import android.content.Context;
-import android.os.AsyncTask;
 import android.os.Parcel;
 import android.os.Parcelable;
-import org.apache.http.HttpResponse;
-import org.apache.http.client.ClientProtocolException;
-import org.apache.http.client.HttpClient;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.impl.client.DefaultHttpClient;
-import org.apache.http.util.EntityUtils;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
 import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
 import ca.michael_cunningham.currencyconverter.interfaces.*;
+import ca.michael_cunningham.currencyconverter.rates.AmountConverter;
+import ca.michael_cunningham.currencyconverter.rates.BatchConverter;
+import ca.michael_cunningham.currencyconverter.rates.ChunkedRateProvider;
+import ca.michael_cunningham.currencyconverter.rates.CompositeRateProvider;
+import ca.michael_cunningham.currencyconverter.rates.CurrencyRegistry;
+import ca.michael_cunningham.currencyconverter.rates.QuoteTime;
+import ca.michael_cunningham.currencyconverter.rates.RateHistory;
+import ca.michael_cunningham.currencyconverter.rates.RateSnapshot;
+import ca.michael_cunningham.currencyconverter.rates.RateStore;
+import ca.michael_cunningham.currencyconverter.rates.SnapshotCodec;
+import ca.michael_cunningham.currencyconverter.rates.YahooRateParser;
+import ca.michael_cunningham.currencyconverter.rates.YahooRateProvider;
 import ca.michael_cunningham.currencyconverter.tools.Cache;
+import ca.michael_cunningham.currencyconverter.tools.Http;
+import ca.michael_cunningham.currencyconverter.tools.HttpTransport;
+import ca.michael_cunningham.currencyconverter.tools.Metrics;
+import ca.michael_cunningham.currencyconverter.tools.SingleFlight;
+import ca.michael_cunningham.currencyconverter.tools.TaskEngine;
 
 /**
  * YahooFinanceAPI
@@ -30,21 +42,42 @@ import ca.michael_cunningham.currencyconverter.tools.Cache;
 public class YahooFinanceAPI implements Parcelable
 {
     // ------------------------------------------------------------------- private class constants
-    static final String URL_PREPEND       = "https://query.yahooapis.com/v1/public/yql?q=select%20*%20from%20yahoo.finance.xchange%20where%20pair%20in%20(";
-    static final String URL_APPEND        = ")&format=json&env=store%3A%2F%2Fdatatables.org%2Falltableswithkeys&callback=";
     static final String JSON_CACHE_FILE   = "cache.json";
+    static final String RATE_CACHE_FILE   = "cache.rates";
+    static final String VALIDATOR_FILE    = "cache.validators";
+    static final String HISTORY_FILE      = "history.rates";
     static final byte   TASK_TYPE_REFRESH = 0;
     static final byte   TASK_TYPE_CONVERT = 1;
+    static final byte   TASK_TYPE_LOAD    = 2;
+    static final int    PIVOT_INDEX       = 0;
+    static final double HEDGE_PERCENTILE  = 95;
+    static final int    CHUNK_SIZE        = 50;
+    static final int    CHUNK_PARALLELISM = 3;
+    static final int    CHUNK_ATTEMPTS    = 3;
+    static final long   RATE_TTL_MS       = 15 * 60 * 1000;
+    static final long   REVALIDATE_MS     = 60 * 1000;
+    static final long   HISTORY_MAX_BYTES = 512 * 1024;
+    static final long   HISTORY_KEEP_MS   = 7 * 24 * 60 * 60 * 1000L;
 
     // ------------------------------------------------------------------- private global variables
-    private OnTaskStarted   iListenerTaskStarted;
-    private OnTaskCompleted iListenerTaskCompleted;
-    private String          strRawJsonData;
-    private String[]        aryJsonTags;
-    private String[]        aryConvertedData;
-    private String          strLastRefreshed;
-    private Context         ctxContext;
-    private boolean         cacheValid;
+    private OnTaskStarted        iListenerTaskStarted;
+    private OnTaskCompleted      iListenerTaskCompleted;
+    private RateStore            objRateStore;
+    private RateHistory          objHistory;
+    private String[]             aryCurrencies;
+    private CurrencyRegistry     objRegistry;
+    private int                  intSelectedPair;
+    private YahooRateProvider    objYahooProvider;
+    private RateProvider         objProvider;
+    private Context              ctxContext;
+    private boolean              cacheLoaded;
+    private long                 lngLastRevalidated;
+    private boolean              triangulateRates;
+    private int                  intPendingFrom;
+    private int                  intPendingTo;
+    private SingleFlight<BitSet> objRefreshFlights;
+    private TaskEngine.Lane      objRefreshLane;
+    private TaskEngine.Lane      objConvertLane;
 
     // ------------------------------------------------------------------- constructors
 
@@ -55,99 +88,321 @@ public class YahooFinanceAPI implements Parcelable
      */
     public YahooFinanceAPI(Context ctxContext)
     {
-        this.aryJsonTags      = ctxContext.getResources().getStringArray(R.array.json_tags);
-        this.aryConvertedData = new String[aryJsonTags.length];
-        this.cacheValid       = false;
+        this(ctxContext.getResources().getStringArray(R.array.currency_codes));
 
-        if (Cache.fileExists(ctxContext, JSON_CACHE_FILE))
+        // only the application's context is kept, the API outlives the activity it was made for
+        this.objRateStore = new RateStore();
+        this.ctxContext   = ctxContext.getApplicationContext();
+    }
+
+    /**
+     * Constructs a new YahooFinanceAPI object from the state it saved in a parcel, the context
+     * is given back with setContext() before it is used, then the rates with loadCache()
+     *
+     * @param in - the parcel written by writeToParcel()
+     */
+    private YahooFinanceAPI(Parcel in)
+    {
+        this(in.createStringArray());
+
+        this.objRateStore       = new RateStore(null, in.readString(), in.readByte() != 0, 0);
+        this.triangulateRates   = in.readByte() != 0;
+        this.lngLastRevalidated = in.readLong();
+
+        // the selected pair is held as a convert, run once the cache has loaded the rates it needs
+        int pair = in.readInt();
+
+        if (pair != RateSnapshot.NO_PAIR)
         {
-            strRawJsonData = (String) Cache.loadFile(ctxContext, JSON_CACHE_FILE);
-            cacheValid = true;
+            this.intPendingFrom = objRegistry.getFrom(pair);
+            this.intPendingTo   = objRegistry.getTo(pair);
         }
+    }
+
+    /**
+     * Constructs a new YahooFinanceAPI object over a currency table, with no rates yet
+     *
+     * @param aryCurrencies - the currency codes
+     */
+    private YahooFinanceAPI(String[] aryCurrencies)
+    {
+        this.aryCurrencies    = aryCurrencies;
+        this.objRegistry      = new CurrencyRegistry(aryCurrencies);
+        this.intSelectedPair  = RateSnapshot.NO_PAIR;
+        this.cacheLoaded      = false;
+        this.triangulateRates = true;
+        this.intPendingFrom   = -1;
+        this.intPendingTo     = -1;
+
+        // at most one refresh of each set of pairs is ever in flight, on a lane of its own so
+        // converts never queue up behind the network
+        TaskEngine objEngine = new TaskEngine();
+
+        this.objRefreshFlights = new SingleFlight<BitSet>();
+        this.objRefreshLane    = objEngine.newLane("Engine-refresh");
+        this.objConvertLane    = objEngine.newLane("Engine-convert");
+
+        // the pairs are asked for in a few concurrent chunks, each chunk hedged to a second,
+        // independent connection to Yahoo when it is slow or fails
+        HttpTransport objTransport = new HttpTransport();
 
-        this.ctxContext = ctxContext;
+        this.objYahooProvider = new YahooRateProvider(objTransport);
+        this.objProvider      = new ChunkedRateProvider(
+                new CompositeRateProvider(objYahooProvider, new YahooRateProvider(objTransport), HEDGE_PERCENTILE),
+                CHUNK_SIZE, CHUNK_PARALLELISM, CHUNK_ATTEMPTS);
     }
 
     // ------------------------------------------------------------------- get methods
 
     /**
-     * Get a new JSONParser object to execute
+     * Get the rates as they are right now, the getters of one UI update are all given this one
+     * state so a refresh landing in between can never mix its values with those of the last one
      *
-     * @return - new JSONParser object
+     * @return - the current state, never null
      */
-    public JSONParser getJSONParser()
+    public RateStore.State getState()
     {
-        return new JSONParser();
+        return objRateStore.get();
     }
 
     /**
-     * Get whether the cache is valid or not
+     * Get whether there are rates to convert with, however stale they may be
      *
      * @return - true/false if the cache is valid or not
      */
     public boolean isCacheValid()
     {
-        return cacheValid;
+        return (objRateStore.get().getSnapshot() != null);
+    }
+
+    /**
+     * Get whether the rate of the selected pair has outlived its time to live, it is still shown
+     * while it is being revalidated
+     *
+     * @param objState - the state read with getState()
+     * @return         - true/false if the selected rate is stale
+     */
+    public boolean isStale(RateStore.State objState)
+    {
+        if (intSelectedPair == RateSnapshot.NO_PAIR)
+        {
+            return false;
+        }
+
+        return objState.getSnapshot().getExpiresAt(intSelectedPair, PIVOT_INDEX, RATE_TTL_MS) <= System.currentTimeMillis();
+    }
+
+    /**
+     * Get whether a refresh or revalidation is currently running
+     *
+     * @return - true/false if the rates are being fetched
+     */
+    public boolean isRefreshing()
+    {
+        return objRefreshFlights.isInFlight();
+    }
+
+    /**
+     * Get the number of refreshes that joined one already in flight instead of fetching again
+     *
+     * @return - the coalesced refresh count
+     */
+    public int getCoalescedRefreshCount()
+    {
+        return objRefreshFlights.getCoalescedCount();
+    }
+
+    /**
+     * Get the number of converts that were superseded by a later one before they were shown
+     *
+     * @return - the coalesced convert count
+     */
+    public int getCoalescedConvertCount()
+    {
+        return objConvertLane.getSupersededCount();
+    }
+
+    /**
+     * Get whether the last refresh failed to reach Yahoo at all
+     *
+     * @param objState - the state read with getState()
+     * @return         - true/false if the last refresh failed
+     */
+    public boolean hasLastRefreshFailed(RateStore.State objState)
+    {
+        return objState.hasLastRefreshFailed();
+    }
+
+    /**
+     * Get how far the rates moved on the last refresh, as the mean relative change of the fetched pairs
+     *
+     * @param objState - the state read with getState()
+     * @return         - the move, 0 if nothing changed
+     */
+    public double getLastMove(RateStore.State objState)
+    {
+        return objState.getLastMove();
+    }
+
+    /**
+     * Get whether the cache has finished loading from the disk or not
+     *
+     * @return - true/false if the cache has been loaded
+     */
+    public boolean isCacheLoaded()
+    {
+        return cacheLoaded;
+    }
+
+    /**
+     * Get the Rate value of the selected pair
+     *
+     * @param objState - the state read with getState()
+     * @return         - the rate value
+     */
+    public String getRate(RateStore.State objState)
+    {
+        if (intSelectedPair == RateSnapshot.NO_PAIR)
+        {
+            return null;
+        }
+
+        return RateSnapshot.format(objState.getSnapshot().getRate(intSelectedPair));
+    }
+
+    /**
+     * Get the Date value of the selected pair
+     *
+     * @param objState - the state read with getState()
+     * @return         - the date value
+     */
+    public String getDate(RateStore.State objState)
+    {
+        if (intSelectedPair == RateSnapshot.NO_PAIR)
+        {
+            return null;
+        }
+
+        return QuoteTime.formatDate(objState.getSnapshot().getQuoteTime(intSelectedPair));
+    }
+
+    /**
+     * Get the Time value of the selected pair
+     *
+     * @param objState - the state read with getState()
+     * @return         - the time value
+     */
+    public String getTime(RateStore.State objState)
+    {
+        if (intSelectedPair == RateSnapshot.NO_PAIR)
+        {
+            return null;
+        }
+
+        return QuoteTime.formatTime(objState.getSnapshot().getQuoteTime(intSelectedPair));
     }
 
     /**
-     * Get the Rate value from the parsed JSON
+     * Get the Ask value of the selected pair
      *
-     * @return - the rate value
+     * @param objState - the state read with getState()
+     * @return         - the ask value
      */
-    public String getRate()
+    public String getAsk(RateStore.State objState)
     {
-        return aryConvertedData[0];
+        if (intSelectedPair == RateSnapshot.NO_PAIR)
+        {
+            return null;
+        }
+
+        return RateSnapshot.format(objState.getSnapshot().getAsk(intSelectedPair));
     }
 
     /**
-     * Get the Date value from the parsed JSON
+     * Get the Bid value of the selected pair
      *
-     * @return - the date value
+     * @param objState - the state read with getState()
+     * @return         - the bid value
      */
-    public String getDate()
+    public String getBid(RateStore.State objState)
     {
-        return aryConvertedData[1];
+        if (intSelectedPair == RateSnapshot.NO_PAIR)
+        {
+            return null;
+        }
+
+        return RateSnapshot.format(objState.getSnapshot().getBid(intSelectedPair));
     }
 
     /**
-     * Get the Time value from the parsed JSON
+     * Get an amount converted over the selected pair, in fixed-point
      *
-     * @return - the time value
+     * @param objState - the state read with getState()
+     * @param amount   - the amount in minor units of the from currency, ie. cents
+     * @param side     - AmountConverter.SIDE_MID, SIDE_BID or SIDE_ASK
+     * @return         - the amount in minor units of the to currency, or AmountConverter.NOT_AVAILABLE
      */
-    public String getTime()
+    public long getConvertedAmount(RateStore.State objState, long amount, byte side)
     {
-        return aryConvertedData[2];
+        if (intSelectedPair == RateSnapshot.NO_PAIR)
+        {
+            return AmountConverter.NOT_AVAILABLE;
+        }
+
+        // the converter was fixed from the very snapshot it belongs to, so both come from the one state
+        AmountConverter objConverter = objState.getConverter();
+
+        return objConverter.convert(objRegistry.getFrom(intSelectedPair), objRegistry.getTo(intSelectedPair), amount, side);
     }
 
     /**
-     * Get the Ask value from the parsed JSON
+     * Get the rate a pair had at a point in time, from the history of every refresh
      *
-     * @return - the ask value
+     * @param from - the position of the currency to convert from
+     * @param to   - the position of the currency to convert to
+     * @param time - epoch milliseconds
+     * @return     - the rate, or NaN if there is no history that far back
      */
-    public String getAsk()
+    public double getHistoricalRate(int from, int to, long time)
     {
-        return aryConvertedData[3];
+        if (objHistory == null)
+        {
+            return Double.NaN;
+        }
+
+        return objHistory.getRateAt(objRegistry.getPair(from, to), time);
     }
 
     /**
-     * Get the Bid value from the parsed JSON
+     * Get the rates a pair went through between two points in time, from the history of every refresh
      *
-     * @return - the bid value
+     * @param from     - the position of the currency to convert from
+     * @param to       - the position of the currency to convert to
+     * @param start    - epoch milliseconds the range starts at
+     * @param end      - epoch milliseconds the range ends at, inclusive
+     * @param aryTimes - receives the time of each point
+     * @param aryRates - receives the rate of each point
+     * @return         - the number of points written
      */
-    public String getBid()
+    public int getHistoricalRates(int from, int to, long start, long end, long[] aryTimes, double[] aryRates)
     {
-        return aryConvertedData[4];
+        if (objHistory == null)
+        {
+            return 0;
+        }
+
+        return objHistory.getSeries(objRegistry.getPair(from, to), start, end, aryTimes, aryRates);
     }
 
     /**
      * Get the last refreshed value from the parsed JSON on refresh
      *
-     * @return - the last refreshed value
+     * @param objState - the state read with getState()
+     * @return         - the last refreshed value
      */
-    public String getLastRefreshed()
+    public String getLastRefreshed(RateStore.State objState)
     {
-        return strLastRefreshed;
+        return objState.getLastRefreshed();
     }
 
     /**
@@ -157,17 +412,134 @@ public class YahooFinanceAPI implements Parcelable
      */
     public void setLastRefreshed(String strLastRefreshed)
     {
-        this.strLastRefreshed = strLastRefreshed;
+        objRateStore.setLastRefreshed(strLastRefreshed);
+    }
+
+    /**
+     * Set the context of the activity using this class, needed again after restoring it from a parcel
+     *
+     * @param ctxContext - the context from the activity which is using this class
+     */
+    public void setContext(Context ctxContext)
+    {
+        this.ctxContext = ctxContext.getApplicationContext();
+    }
+
+    /**
+     * Set whether a refresh only fetches the pivot currency's rates and computes the cross rates
+     * locally, or fetches every pair directly
+     *
+     * @param triangulateRates - true/false if the cross rates should be triangulated
+     */
+    public void setTriangulateRates(boolean triangulateRates)
+    {
+        this.triangulateRates = triangulateRates;
     }
 
     // ------------------------------------------------------------------- public methods
 
     /**
-     * Set the cache validity to false, invalidating the cache
+     * Starts loading the cached snapshot from the disk in the background, the listener is told
+     * with TASK_TYPE_LOAD once it is done, whether or not there was a usable cache. It runs on the
+     * refresh lane, so a refresh always has the cached snapshot to merge into.
+     */
+    public void loadCache()
+    {
+        objRefreshLane.execute(new CacheLoader());
+    }
+
+    /**
+     * Converts between two currencies from the rates in memory, never waiting on the network. A
+     * convert cancels any convert still queued or running, and converts asked for before the
+     * cache has loaded are held and only the latest one is run once it has.
+     *
+     * @param from - the position of the currency to convert from
+     * @param to   - the position of the currency to convert to
+     */
+    public void convert(int from, int to)
+    {
+        if (!cacheLoaded)
+        {
+            intPendingFrom = from;
+            intPendingTo   = to;
+
+            return;
+        }
+
+        objConvertLane.supersede(new JSONParser(from, to));
+    }
+
+    /**
+     * Converts a batch of amounts with the rates in memory, meant to be called off the UI thread
+     * as a large batch is converted on every core
+     *
+     * @param aryFrom    - the position of the currency each amount is in
+     * @param aryTo      - the position of the currency each amount is converted to
+     * @param aryAmounts - the amounts
+     * @param aryResults - receives the converted amounts, NaN where a rate is not available
+     * @return           - true/false if there were rates to convert with
+     * @throws InterruptedException - if interrupted while waiting on a parallel batch
+     */
+    public boolean convertBatch(int[] aryFrom, int[] aryTo, double[] aryAmounts, double[] aryResults) throws InterruptedException
+    {
+        RateSnapshot objRates = objRateStore.get().getSnapshot();
+
+        if (objRates == null)
+        {
+            return false;
+        }
+
+        BatchConverter.convert(objRates, aryFrom, aryTo, aryAmounts, aryResults, 0, aryAmounts.length);
+
+        return true;
+    }
+
+    /**
+     * Opens a connection to Yahoo ahead of the first refresh, so it does not pay for the handshake
+     */
+    public void prewarm()
+    {
+        Http.prewarm(YahooRateProvider.URL_HOST);
+    }
+
+    /**
+     * Fetches every rate again, whether or not it has expired, the current rates are still served
+     * until the new ones arrive. A refresh asked for while the same one is in flight joins it, and
+     * the listener hears about the one result.
+     */
+    public void refresh()
+    {
+        startRefresh(getRefreshPairs());
+    }
+
+    /**
+     * Fetches only the rates that have outlived their time to live, in the background. Nothing is
+     * fetched while a refresh is running, or within a minute of the last revalidation, so a
+     * revalidation that keeps failing does not keep hitting the network.
+     *
+     * @return - true/false if a revalidation was started
      */
-    public void invalidateCache()
+    public boolean revalidate()
     {
-        this.cacheValid = false;
+        long now = System.currentTimeMillis();
+
+        RateSnapshot objRates = objRateStore.get().getSnapshot();
+
+        if (isRefreshing() || (objRates == null) || ((now - lngLastRevalidated) < REVALIDATE_MS))
+        {
+            return false;
+        }
+
+        int[] aryExpired = getExpiredPairs(objRates, now);
+
+        if (aryExpired.length == 0)
+        {
+            return false;
+        }
+
+        lngLastRevalidated = now;
+
+        return startRefresh(aryExpired);
     }
 
     /**
@@ -193,15 +565,54 @@ public class YahooFinanceAPI implements Parcelable
      * @since   December 2nd, 2014
      * @version v1.0
      */
-    protected class JSONParser extends AsyncTask<String, Void, String[]>
+    protected class JSONParser extends TaskEngine.Task<Integer>
     {
+        private final int[]   aryFetchPairs;
+        private final BitSet  objFlight;
+        private final boolean isRefresh;
+        private final int     from;
+        private final int     to;
+        private long          lngStarted;
+
+        /**
+         * Constructs a new JSONParser object to refresh with
+         *
+         * @param aryFetchPairs - the pairs to fetch
+         * @param objFlight     - the single flight key the task was started under, landed when it completes
+         */
+        JSONParser(int[] aryFetchPairs, BitSet objFlight)
+        {
+            this.aryFetchPairs = aryFetchPairs;
+            this.objFlight     = objFlight;
+            this.isRefresh     = true;
+            this.from          = -1;
+            this.to            = -1;
+        }
+
+        /**
+         * Constructs a new JSONParser object to convert with
+         *
+         * @param from - the position of the currency to convert from
+         * @param to   - the position of the currency to convert to
+         */
+        JSONParser(int from, int to)
+        {
+            this.aryFetchPairs = null;
+            this.objFlight     = null;
+            this.isRefresh     = false;
+            this.from          = from;
+            this.to            = to;
+        }
+
         /**
          * Run before the task has started
          */
         @Override
         protected void onPreExecute()
         {
-            if (!cacheValid) {
+            lngStarted = Metrics.start();
+
+            if (isRefresh) {
                 iListenerTaskStarted.onTaskStarted(TASK_TYPE_REFRESH);
             } else {
                 iListenerTaskStarted.onTaskStarted(TASK_TYPE_CONVERT);
@@ -211,146 +622,464 @@ public class YahooFinanceAPI implements Parcelable
         /**
          * The core functionality of the task at hand
          *
-         * @param parameters - URL parameters, different depending on cache validity
-         * @return           - either null or a string array, depending on cache validity
+         * @return - the selected pair index, or null on a refresh
          */
         @Override
-        protected String[] doInBackground(String... parameters)
+        protected Integer doInBackground()
         {
-            if (!cacheValid)
+            if (isRefresh)
             {
+                long started = Metrics.start();
+
+                Metrics.increment(Metrics.COUNTER_REFRESH);
+
                 try
                 {
-                    /* get all possibilities that the user could select out of the two spinners */
-                    /* Yahoo's Finance API does not support more than 2 possible combinations of currencies */
-                    int    parametersLength = parameters.length;
-                    String strParameter     = "";
+                    // the refresh lane is the only writer of snapshots, the UI thread keeps reading
+                    // the old state until the new one is swapped in whole
+                    RateSnapshot         objBase      = objRateStore.get().getSnapshot();
+                    long                 phase        = Metrics.start();
+                    RateSnapshot.Builder objBuilder   = objProvider.fetch(aryCurrencies, aryFetchPairs);
+                    boolean              isModified   = (objBuilder != null);
+                    String               strRefreshed = QuoteTime.formatCreated(System.currentTimeMillis());
+                    double               move         = 0;
+
+                    Metrics.record(Metrics.TIMER_FETCH, phase);
 
-                    for (int i = 0; i < parametersLength; i++)
+                    if (!isModified)
                     {
-                        for (int x = 0; x < parametersLength; x++)
+                        Metrics.increment(Metrics.COUNTER_NOT_MODIFIED);
+
+                        // nothing has changed, the cached snapshot is as fresh as a new response
+                        if (objBase == null)
                         {
-                            strParameter += "%22" + parameters[i] + parameters[x];
-
-                            if ((i == (parametersLength - 1)) && (x == (parametersLength - 1)))
-                            {
-                                strParameter += "%22";
-                            }
-                            else
-                            {
-                                strParameter += "%22%2C%20";
-                            }
+                            objRateStore.publishNotModified(strRefreshed);
+
+                            return null;
                         }
+
+                        objBuilder = new RateSnapshot.Builder(aryCurrencies).putRevalidated(aryFetchPairs);
                     }
 
-                    // initialize http objects
-                    HttpClient objHttpClient = new DefaultHttpClient();
-                    HttpPost   objHttpPost   = new HttpPost(URL_PREPEND + strParameter + URL_APPEND);
+                    // pairs that were not due, not modified or kept failing keep their last quotes,
+                    // then any pair not quoted directly is crossed through the pivot currency
+                    phase = Metrics.start();
+
+                    RateSnapshot objNext = objBuilder.merge(objBase, getRefreshPairs()).triangulate(PIVOT_INDEX).build();
 
-                    // fetch the data and save to global variable
-                    HttpResponse objHttpResponse = objHttpClient.execute(objHttpPost);
-                                 strRawJsonData  = EntityUtils.toString(objHttpResponse.getEntity(), "UTF-8");
+                    Metrics.record(Metrics.TIMER_MERGE, phase);
 
-                    try
+                    if (isModified)
                     {
-                        // save the created date :)
-                        JSONObject allJsonData      = new JSONObject(strRawJsonData);
-                        JSONObject childQuery       = allJsonData.getJSONObject("query");
-                                   strLastRefreshed = childQuery.getString("created");
+                        strRefreshed = QuoteTime.formatCreated(objNext.getCreated());
+
+                        if (objBase != null)
+                        {
+                            move = objNext.getMove(objBase, aryFetchPairs);
+                        }
                     }
-                    catch (JSONException e)
+
+                    // the snapshot, its converter and what the UI shows about it are swapped in as one
+                    objRateStore.publish(objNext, strRefreshed, move);
+
+                    // only the rates that moved are appended, an unchanged refresh adds nothing
+                    if (isModified && openHistory())
                     {
-                        e.printStackTrace();
+                        objHistory.append(objNext, System.currentTimeMillis());
                     }
 
-                    Cache.saveFile(strRawJsonData, ctxContext, JSON_CACHE_FILE);
+                    phase = Metrics.start();
+
+                    Cache.saveBuffer(SnapshotCodec.encode(objNext, System.currentTimeMillis()), ctxContext.getFilesDir(), RATE_CACHE_FILE);
+                    Cache.saveFile(objYahooProvider.getValidators(), ctxContext.getFilesDir(), VALIDATOR_FILE);
+
+                    Metrics.record(Metrics.TIMER_CACHE_SAVE, phase);
                 }
-                catch (ClientProtocolException e)
+                catch (IOException e)
                 {
-                    e.printStackTrace();
+                    publishFailed(e);
                 }
-                catch (IOException e)
+                catch (RuntimeException e)
                 {
-                    e.printStackTrace();
+                    // a malformed response is as much a failed refresh as no response, it must back off too
+                    publishFailed(e);
                 }
+
+                Metrics.record(Metrics.TIMER_REFRESH, started);
             }
             else
             {
-                String[] aryReturn = new String[aryJsonTags.length];
+                /* after executing this task with a valid cache, we can simply feed in two currency positions */
+                long         started  = Metrics.start();
+                RateSnapshot objRates = objRateStore.get().getSnapshot();
 
-                try
+                if (objRates == null)
                 {
-                    /* after executing this task with a valid cache, we can simply feed in two currency strings */
-                    String strParameter = "";
-
-                    for (String parameter : parameters)
-                    {
-                        strParameter += parameter;
-                    }
-
-                    // we need to traverse through the JSON data structure to get to the data :)
-                    JSONObject allJsonData  = new JSONObject(strRawJsonData);
-                    JSONObject childQuery   = allJsonData.getJSONObject("query");
-                    JSONObject childResults = childQuery.getJSONObject("results");
-                    JSONArray  childRate    = childResults.getJSONArray("rate");
+                    Metrics.increment(Metrics.COUNTER_CACHE_MISS);
 
-                    for (int i = 0; i < childRate.length(); i++)
-                    {
-                        JSONObject row = childRate.getJSONObject(i);
-                        String     id  = row.getString("id");
+                    return null;
+                }
 
-                        if (id.contentEquals(strParameter))
-                        {
-                            // stuff all the values from the json data into the return array
-                            for (int x = 0; x < aryJsonTags.length; x++)
-                            {
-                                aryReturn[x] = row.getString(aryJsonTags[x]);
-                            }
-                        }
-                    }
+                int pair = objRates.getPair(from, to);
 
-                    return aryReturn;
+                Metrics.increment(Metrics.COUNTER_CACHE_HIT);
+                Metrics.record(Metrics.TIMER_CONVERT, started);
 
-                }
-                catch (JSONException e)
-                {
-                    e.printStackTrace();
-                }
+                return pair;
             }
 
             return null;
         }
 
+        /**
+         * Publishes a refresh that failed, the snapshot on screen stays as it is and is marked stale
+         *
+         * @param e - the exception the refresh failed with
+         */
+        private void publishFailed(Exception e)
+        {
+            e.printStackTrace();
+            objRateStore.publishFailed();
+
+            Metrics.increment(Metrics.COUNTER_REFRESH_FAILED);
+        }
+
         /**
          * Run after the core task at hand
-         * @param aryReturn - the object returned from doInBackground()
+         * @param pair - the object returned from doInBackground()
          */
         @Override
-        protected void onPostExecute(String[] aryReturn)
+        protected void onPostExecute(Integer pair)
         {
-            aryConvertedData = aryReturn;
-
-            if (!cacheValid)
+            if (isRefresh)
             {
-                cacheValid = true;
+                // everyone who joined this refresh is answered by the one completion
+                objRefreshFlights.end(objFlight);
                 iListenerTaskCompleted.onTaskCompleted(TASK_TYPE_REFRESH);
             }
             else
             {
+                intSelectedPair = (pair == null) ? RateSnapshot.NO_PAIR : pair;
                 iListenerTaskCompleted.onTaskCompleted(TASK_TYPE_CONVERT);
+
+                // from the tap to the rate on screen, queueing on the lane included
+                Metrics.record(Metrics.TIMER_DELIVERY, lngStarted);
+            }
+        }
+
+        /**
+         * Run instead of onPostExecute() when the task was cancelled, ie. a convert superseded
+         * by a later one, whose result is the only one worth showing
+         */
+        @Override
+        protected void onCancelled()
+        {
+            if (isRefresh)
+            {
+                objRefreshFlights.end(objFlight);
+                iListenerTaskCompleted.onTaskCompleted(TASK_TYPE_REFRESH);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------- protected inner class
+    /**
+     * CacheLoader
+     * ------------------------
+     *
+     * Reads the cached snapshot off the UI thread so the first frame never waits on the disk
+     *
+     * @author  Michael Cunningham (http://michael-cunningham.ca)
+     * @since   October 18th, 2026
+     * @version v1.1
+     */
+    protected class CacheLoader extends TaskEngine.Task<RateSnapshot>
+    {
+        private HashMap<String, String[]> mapCachedValidators;
+
+        /**
+         * Reads, decodes and publishes the cached snapshot, along with the validators of the response
+         * it came from, unless a refresh has already replaced it
+         *
+         * @return - the cached snapshot, or null if there is no usable cache
+         */
+        @Override
+        protected RateSnapshot doInBackground()
+        {
+            long started = Metrics.start();
+
+            if (Cache.fileExists(ctxContext.getFilesDir(), VALIDATOR_FILE))
+            {
+                Object objValidators = Cache.loadFile(ctxContext.getFilesDir(), VALIDATOR_FILE);
+
+                // older versions kept a single String[], those are dropped and rebuilt on the next refresh
+                if (objValidators instanceof HashMap)
+                {
+                    @SuppressWarnings("unchecked")
+                    HashMap<String, String[]> mapValidators = (HashMap<String, String[]>) objValidators;
+
+                    mapCachedValidators = mapValidators;
+                }
+            }
+
+            RateSnapshot objCached = readCache();
+
+            Metrics.record(Metrics.TIMER_CACHE_LOAD, started);
+            openHistory();
+
+            // published from the lane itself, so a refresh queued behind the load always merges into it
+            if ((objCached != null) && objRateStore.publishIfEmpty(objCached))
+            {
+                objYahooProvider.setValidators(mapCachedValidators);
+            }
+
+            return objCached;
+        }
+
+        /**
+         * Marks the cache as loaded and runs the held convert
+         *
+         * @param objCached - the object returned from doInBackground()
+         */
+        @Override
+        protected void onPostExecute(RateSnapshot objCached)
+        {
+            cacheLoaded = true;
+
+            // a held convert without a cache would turn into a refresh, leave that decision to the listener
+            if ((intPendingFrom != -1) && isCacheValid())
+            {
+                convert(intPendingFrom, intPendingTo);
             }
+
+            intPendingFrom = -1;
+            intPendingTo   = -1;
+
+            iListenerTaskCompleted.onTaskCompleted(TASK_TYPE_LOAD);
+        }
+    }
+
+    // ------------------------------------------------------------------- private methods
+    /**
+     * Starts a refresh of the given pairs, unless the very same refresh is already in flight
+     *
+     * @param aryPairs - the pairs to fetch, each one (from * currency count + to)
+     * @return         - true/false if a new refresh was started, rather than joined
+     */
+    private boolean startRefresh(int[] aryPairs)
+    {
+        // the flight is keyed on the set of pair keys, a handful of words however many pairs it holds
+        BitSet objFlight = new BitSet(objRegistry.getCount() * objRegistry.getCount());
+
+        for (int pair : aryPairs)
+        {
+            objFlight.set(pair);
+        }
+
+        if (!objRefreshFlights.begin(objFlight))
+        {
+            return false;
         }
+
+        objRefreshLane.execute(new JSONParser(aryPairs, objFlight));
+
+        return true;
+    }
+
+    /**
+     * Opens the history of every refresh the first time it is needed, only ever on the refresh lane
+     *
+     * @return - true/false if the history is open
+     */
+    private boolean openHistory()
+    {
+        if (objHistory == null)
+        {
+            RateHistory objOpened = new RateHistory(ctxContext.getFileStreamPath(HISTORY_FILE), aryCurrencies, HISTORY_MAX_BYTES, HISTORY_KEEP_MS);
+
+            try
+            {
+                objOpened.open();
+                objHistory = objOpened;
+            }
+            catch (IOException e)
+            {
+                e.printStackTrace();
+            }
+        }
+
+        return (objHistory != null);
+    }
+
+    /**
+     * Get the pairs a refresh asks for, only the pivot currency's row when triangulating
+     *
+     * @return - the pairs, each one (from * currency count + to)
+     */
+    private int[] getRefreshPairs()
+    {
+        /* get all possibilities that the user could select out of the two spinners */
+        /* Yahoo's Finance API does not support more than 2 possible combinations of currencies */
+        /* the provider splits these into chunks, so the list itself may be as long as it needs to */
+        int   count    = objRegistry.getCount();
+        int   rows     = triangulateRates ? 1 : count;
+        int[] aryPairs = new int[rows * (count - 1)];
+        int   next     = 0;
+
+        for (int i = 0; i < count; i++)
+        {
+            if (triangulateRates && (i != PIVOT_INDEX))
+            {
+                continue;
+            }
+
+            for (int x = 0; x < count; x++)
+            {
+                // identity pairs are always 1, there is no need to ask for them
+                if (i != x)
+                {
+                    aryPairs[next++] = objRegistry.getPair(i, x);
+                }
+            }
+        }
+
+        return aryPairs;
+    }
+
+    /**
+     * Get the refresh pairs that have outlived their time to live, or were never fetched
+     *
+     * @param objRates - the snapshot to check
+     * @param now      - epoch milliseconds to compare against
+     * @return         - the pairs, each one (from * currency count + to)
+     */
+    private int[] getExpiredPairs(RateSnapshot objRates, long now)
+    {
+        int[] aryPairs   = getRefreshPairs();
+        int[] aryExpired = new int[aryPairs.length];
+        int   next       = 0;
+
+        for (int pair : aryPairs)
+        {
+            if (objRates.getExpiresAt(pair, PIVOT_INDEX, RATE_TTL_MS) <= now)
+            {
+                aryExpired[next++] = pair;
+            }
+        }
+
+        return Arrays.copyOf(aryExpired, next);
+    }
+
+    /**
+     * Reads the cached snapshot from the disk, migrating the cache of older versions if needed
+     *
+     * @return - the cached snapshot, or null if there is no usable cache
+     */
+    private RateSnapshot readCache()
+    {
+        RateSnapshot objCached = null;
+
+        if (Cache.fileExists(ctxContext.getFilesDir(), RATE_CACHE_FILE))
+        {
+            ByteBuffer objBuffer = Cache.loadBuffer(ctxContext.getFilesDir(), RATE_CACHE_FILE);
+
+            if (objBuffer != null)
+            {
+                // an older or corrupt file decodes to null and is replaced on the next refresh
+                objCached = SnapshotCodec.decode(objBuffer);
+            }
+        }
+        else if (Cache.fileExists(ctxContext.getFilesDir(), JSON_CACHE_FILE))
+        {
+            // older versions cached the raw JSON response, index it once and move it to the new cache
+            objCached = parseSnapshot((String) Cache.loadFile(ctxContext.getFilesDir(), JSON_CACHE_FILE));
+
+            if (objCached != null)
+            {
+                Cache.saveBuffer(SnapshotCodec.encode(objCached, System.currentTimeMillis()), ctxContext.getFilesDir(), RATE_CACHE_FILE);
+            }
+
+            Cache.deleteFile(ctxContext.getFilesDir(), JSON_CACHE_FILE);
+        }
+
+        return objCached;
+    }
+
+    /**
+     * Indexes every rate of a raw JSON response by currency position
+     *
+     * @param strRawJsonData - the raw JSON response from Yahoo
+     * @return               - the parsed snapshot, or null if the data could not be parsed
+     */
+    private RateSnapshot parseSnapshot(String strRawJsonData)
+    {
+        if (strRawJsonData == null)
+        {
+            return null;
+        }
+
+        try
+        {
+            RateSnapshot.Builder objBuilder = new RateSnapshot.Builder(aryCurrencies);
+
+            if (YahooRateParser.parse(new StringReader(strRawJsonData), objBuilder) == 0)
+            {
+                return null;
+            }
+
+            // cross any pair the response did not quote directly through the pivot currency
+            return objBuilder.triangulate(PIVOT_INDEX).build();
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+        }
+
+        return null;
     }
 
     // ------------------------------------------------------------------- parcelable methods
+    public static final Parcelable.Creator<YahooFinanceAPI> CREATOR = new Parcelable.Creator<YahooFinanceAPI>()
+    {
+        @Override
+        public YahooFinanceAPI createFromParcel(Parcel in)
+        {
+            return new YahooFinanceAPI(in);
+        }
+
+        @Override
+        public YahooFinanceAPI[] newArray(int size)
+        {
+            return new YahooFinanceAPI[size];
+        }
+    };
+
     @Override
     public int describeContents()
     {
         return 0;
     }
 
+    /**
+     * Writes only the small state the UI needs, the rates themselves stay with the retained engine
+     * and, should the process be killed, are read back from the cache along with their validators
+     *
+     * @param d     - the parcel to write to
+     * @param flags - how the object is being written
+     */
     @Override
     public void writeToParcel(Parcel d, int flags)
     {
+        RateStore.State objState = objRateStore.get();
+
+        // a convert still held for the cache is the selection to restore
+        int pair = (intPendingFrom != -1) ? objRegistry.getPair(intPendingFrom, intPendingTo) : intSelectedPair;
+
+        d.writeStringArray(aryCurrencies);
+        d.writeString(objState.getLastRefreshed());
+        d.writeByte((byte) (objState.hasLastRefreshFailed() ? 1 : 0));
+        d.writeByte((byte) (triangulateRates ? 1 : 0));
+        d.writeLong(lngLastRevalidated);
+        d.writeInt(pair);
     }
-}
\ No newline at end of file
+}
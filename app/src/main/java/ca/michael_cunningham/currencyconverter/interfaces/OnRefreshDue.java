@@ -0,0 +1,19 @@
+package ca.michael_cunningham.currencyconverter.interfaces;
+
+/**
+ * OnRefreshDue
+ * ------------------------
+ *
+ * Interface which designates that a scheduled refresh is due
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public interface OnRefreshDue
+{
+    /**
+     * Designates that a scheduled refresh is due, its outcome is reported back to the scheduler
+     */
+    void onRefreshDue();
+}
@@ -23,6 +23,8 @@ public class PopupChangeSettings extends Activity
     // ------------------------------------------------------------------- private global variables
     private Intent objIntent;
     private Switch swtRefreshOnlyOnWiFi;
+    private Switch swtTriangulateRates;
+    private Switch swtAutoConvert;
 
     // ------------------------------------------------------------------- override methods
     /**
@@ -40,6 +42,8 @@ public class PopupChangeSettings extends Activity
         // initialize global variables and objects
         objIntent            = getIntent();
         swtRefreshOnlyOnWiFi = (Switch) findViewById(R.id.swtRefreshOnlyOnWiFi);
+        swtTriangulateRates  = (Switch) findViewById(R.id.swtTriangulateRates);
+        swtAutoConvert       = (Switch) findViewById(R.id.swtAutoConvert);
 
         // initialize local variables and objects
         Button btnSaveClose = (Button) findViewById(R.id.btnSaveClose);
@@ -47,6 +51,8 @@ public class PopupChangeSettings extends Activity
 
         // is the switch active/inactive according to the shared preferences?
         swtRefreshOnlyOnWiFi.setChecked(objIntent.getBooleanExtra("refreshOnlyOnWiFi", true));
+        swtTriangulateRates.setChecked(objIntent.getBooleanExtra("triangulateRates", true));
+        swtAutoConvert.setChecked(objIntent.getBooleanExtra("autoConvert", false));
 
         // wire up event handlers
         btnSaveClose.setOnClickListener(new View.OnClickListener()
@@ -73,6 +79,8 @@ public class PopupChangeSettings extends Activity
     protected void onClickBtnSaveClose()
     {
         objIntent.putExtra("swtRefreshOnlyOnWiFi", swtRefreshOnlyOnWiFi.isChecked());
+        objIntent.putExtra("swtTriangulateRates", swtTriangulateRates.isChecked());
+        objIntent.putExtra("swtAutoConvert", swtAutoConvert.isChecked());
         setResult(RESULT_OK, objIntent);
         finish();
     }
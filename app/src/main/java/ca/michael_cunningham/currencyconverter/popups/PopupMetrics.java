@@ -0,0 +1,196 @@
+package ca.michael_cunningham.currencyconverter.popups;
+
+import android.app.Activity;
+import android.os.Bundle;
+import android.view.View;
+import android.widget.Button;
+import android.widget.TextView;
+import android.widget.Toast;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import ca.michael_cunningham.currencyconverter.BuildConfig;
+import ca.michael_cunningham.currencyconverter.R;
+import ca.michael_cunningham.currencyconverter.tools.Metrics;
+import ca.michael_cunningham.currencyconverter.tools.Tracer;
+
+/**
+ * PopupMetrics
+ * ------------------------
+ *
+ * Popup Activity showing the counters and timers of the refresh and convert phases, which can be
+ * dumped to a file named after the version, to compare one release against another. The timeline
+ * of the last tasks can be exported too, to open in chrome://tracing or Perfetto.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public class PopupMetrics extends Activity
+{
+    // ------------------------------------------------------------------- private global variables
+    private TextView lblMetrics;
+
+    // ------------------------------------------------------------------- override methods
+    /**
+     * Constructs views, layout, objects and initializes variables
+     *
+     * @param siState - the saved instance state bundle from onSaveInstanceState()
+     */
+    @Override
+    public void onCreate(Bundle siState)
+    {
+        super.onCreate(siState);
+        setContentView(R.layout.popup_metrics);
+
+        // initialize global views
+        lblMetrics = (TextView) findViewById(R.id.lblMetrics);
+
+        // initialize local views
+        Button btnDumpMetrics  = (Button) findViewById(R.id.btnDumpMetrics);
+        Button btnExportTrace  = (Button) findViewById(R.id.btnExportTrace);
+        Button btnResetMetrics = (Button) findViewById(R.id.btnResetMetrics);
+        Button btnClose        = (Button) findViewById(R.id.btnClose);
+
+        lblMetrics.setText(Metrics.dump());
+
+        // wire up event handlers
+        btnDumpMetrics.setOnClickListener(new View.OnClickListener()
+        {
+            public void onClick(View v)
+            {
+                onClickBtnDumpMetrics();
+            }
+        });
+        btnExportTrace.setOnClickListener(new View.OnClickListener()
+        {
+            public void onClick(View v)
+            {
+                onClickBtnExportTrace();
+            }
+        });
+        btnResetMetrics.setOnClickListener(new View.OnClickListener()
+        {
+            public void onClick(View v)
+            {
+                onClickBtnResetMetrics();
+            }
+        });
+        btnClose.setOnClickListener(new View.OnClickListener()
+        {
+            public void onClick(View v)
+            {
+                finish();
+            }
+        });
+    }
+
+    // ------------------------------------------------------------------- protected event handlers
+    /**
+     * Event handler called when user clicks btnDumpMetrics, writes the metrics to the app's external
+     * files directory so they can be pulled off the device
+     */
+    protected void onClickBtnDumpMetrics()
+    {
+        String strStamp = getStamp();
+        File   objFile  = getDumpFile("metrics-", strStamp, ".txt");
+
+        try
+        {
+            Writer outWriter = new OutputStreamWriter(new FileOutputStream(objFile), "UTF-8");
+
+            try
+            {
+                outWriter.write("version " + BuildConfig.VERSION_NAME + " (" + BuildConfig.VERSION_CODE + "), " + strStamp + "\n\n");
+                outWriter.write(Metrics.dump());
+            }
+            finally
+            {
+                outWriter.close();
+            }
+
+            Toast.makeText(this, getResources().getString(R.string.metricsDumped) + objFile.getPath(), Toast.LENGTH_LONG).show();
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+            Toast.makeText(this, R.string.metricsNotDumped, Toast.LENGTH_LONG).show();
+        }
+    }
+
+    /**
+     * Event handler called when user clicks btnExportTrace, writes the trace buffer next to the
+     * metrics dumps
+     */
+    protected void onClickBtnExportTrace()
+    {
+        File objFile = getDumpFile("trace-", getStamp(), ".json");
+
+        try
+        {
+            Writer outWriter = new OutputStreamWriter(new FileOutputStream(objFile), "UTF-8");
+
+            try
+            {
+                Tracer.export(outWriter);
+            }
+            finally
+            {
+                outWriter.close();
+            }
+
+            Toast.makeText(this, getResources().getString(R.string.traceExported) + objFile.getPath(), Toast.LENGTH_LONG).show();
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+            Toast.makeText(this, R.string.traceNotExported, Toast.LENGTH_LONG).show();
+        }
+    }
+
+    /**
+     * Event handler called when user clicks btnResetMetrics
+     */
+    protected void onClickBtnResetMetrics()
+    {
+        Metrics.reset();
+        lblMetrics.setText(Metrics.dump());
+    }
+
+    // ------------------------------------------------------------------- private methods
+    /**
+     * Get the current time formatted for a file name
+     *
+     * @return - the time stamp
+     */
+    private String getStamp()
+    {
+        return new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US).format(new Date());
+    }
+
+    /**
+     * Get a file named after the version in the app's external files directory
+     *
+     * @param strPrefix    - what the file holds
+     * @param strStamp     - the time stamp
+     * @param strExtension - the file extension
+     * @return             - the file
+     */
+    private File getDumpFile(String strPrefix, String strStamp, String strExtension)
+    {
+        File objDirectory = getExternalFilesDir(null);
+
+        if (objDirectory == null)
+        {
+            // no external storage mounted, the files directory is the next best
+            objDirectory = getFilesDir();
+        }
+
+        return new File(objDirectory, strPrefix + BuildConfig.VERSION_NAME + "-" + strStamp + strExtension);
+    }
+}
@@ -0,0 +1,176 @@
+package ca.michael_cunningham.currencyconverter.tools;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.conn.params.ConnManagerParams;
+import org.apache.http.conn.params.ConnPerRouteBean;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.params.HttpProtocolParams;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Http
+ * ------------------------
+ *
+ * An Android compatible, custom, abstract Java class holding one long-lived HTTP client for the
+ * whole process. Connections are pooled and kept alive between requests, responses are asked for
+ * gzipped and requests can be made conditional on the validators of the last response.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public abstract class Http
+{
+    // ------------------------------------------------------------------- private class constants
+    private static final int  TIMEOUT_CONNECT    = 15000;
+    private static final int  TIMEOUT_SOCKET     = 30000;
+    private static final int  MAX_CONNECTIONS    = 8;
+    private static final long IDLE_CONNECTION_MS = 60000;
+
+    // ------------------------------------------------------------------- private global variables
+    private static HttpClient objHttpClient;
+
+    /**
+     * Get the shared client, building it on first use
+     *
+     * @return - the shared, thread safe client
+     */
+    public static synchronized HttpClient getClient()
+    {
+        if (objHttpClient == null)
+        {
+            HttpParams objParams = new BasicHttpParams();
+
+            HttpProtocolParams.setVersion(objParams, HttpVersion.HTTP_1_1);
+            HttpProtocolParams.setContentCharset(objParams, "UTF-8");
+            HttpConnectionParams.setConnectionTimeout(objParams, TIMEOUT_CONNECT);
+            HttpConnectionParams.setSoTimeout(objParams, TIMEOUT_SOCKET);
+            HttpConnectionParams.setStaleCheckingEnabled(objParams, true);
+            ConnManagerParams.setMaxTotalConnections(objParams, MAX_CONNECTIONS);
+            ConnManagerParams.setMaxConnectionsPerRoute(objParams, new ConnPerRouteBean(MAX_CONNECTIONS));
+
+            SchemeRegistry objRegistry = new SchemeRegistry();
+            objRegistry.register(new Scheme("http", PlainSocketFactory.getSocketFactory(), 80));
+            objRegistry.register(new Scheme("https", SSLSocketFactory.getSocketFactory(), 443));
+
+            objHttpClient = new DefaultHttpClient(new ThreadSafeClientConnManager(objParams, objRegistry), objParams);
+        }
+
+        return objHttpClient;
+    }
+
+    /**
+     * Issues a GET asking for a gzipped response, conditional on the given validators
+     *
+     * @param url             - the url to fetch
+     * @param strETag         - the ETag of the last response, or null
+     * @param strLastModified - the Last-Modified of the last response, or null
+     * @return                - the response, its entity must be consumed to free the connection
+     * @throws IOException    - if the request failed
+     */
+    public static HttpResponse get(String url, String strETag, String strLastModified) throws IOException
+    {
+        HttpClient objClient  = getClient();
+        HttpGet    objHttpGet = new HttpGet(url);
+
+        objHttpGet.addHeader("Accept-Encoding", "gzip");
+
+        if (strETag != null)
+        {
+            objHttpGet.addHeader("If-None-Match", strETag);
+        }
+
+        if (strLastModified != null)
+        {
+            objHttpGet.addHeader("If-Modified-Since", strLastModified);
+        }
+
+        // a pooled connection the server has since dropped would only fail the request
+        objClient.getConnectionManager().closeIdleConnections(IDLE_CONNECTION_MS, TimeUnit.MILLISECONDS);
+
+        return objClient.execute(objHttpGet);
+    }
+
+    /**
+     * Get the body of a response, transparently un-gzipping it
+     *
+     * @param objEntity    - the entity of the response
+     * @return             - the decoded body
+     * @throws IOException - if the body could not be opened
+     */
+    public static InputStream getContent(HttpEntity objEntity) throws IOException
+    {
+        InputStream inStream   = objEntity.getContent();
+        Header      objEncoded = objEntity.getContentEncoding();
+
+        if ((objEncoded != null) && objEncoded.getValue().equalsIgnoreCase("gzip"))
+        {
+            return new GZIPInputStream(inStream);
+        }
+
+        return inStream;
+    }
+
+    /**
+     * Get the value of a response header
+     *
+     * @param objResponse - the response
+     * @param strName     - the name of the header
+     * @return            - the value, or null if the header is not there
+     */
+    public static String getHeader(HttpResponse objResponse, String strName)
+    {
+        Header objHeader = objResponse.getFirstHeader(strName);
+
+        return (objHeader == null) ? null : objHeader.getValue();
+    }
+
+    /**
+     * Opens a connection to the host of the url in the background and leaves it in the pool, so the
+     * DNS lookup and TLS handshake are already done when the first real request goes out
+     *
+     * @param url - a url on the host to connect to
+     */
+    public static void prewarm(final String url)
+    {
+        new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    HttpResponse objResponse = getClient().execute(new HttpHead(url));
+                    HttpEntity   objEntity   = objResponse.getEntity();
+
+                    // releasing the entity hands the connection back to the pool
+                    if (objEntity != null)
+                    {
+                        objEntity.consumeContent();
+                    }
+                }
+                catch (IOException e)
+                {
+                    e.printStackTrace();
+                }
+            }
+        }, "Http-prewarm").start();
+    }
+}
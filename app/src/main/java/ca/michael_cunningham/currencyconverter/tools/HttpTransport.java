@@ -0,0 +1,73 @@
+package ca.michael_cunningham.currencyconverter.tools;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import ca.michael_cunningham.currencyconverter.interfaces.Transport;
+
+/**
+ * HttpTransport
+ * ------------------------
+ *
+ * The Transport the app sends its requests over, the shared, pooled Apache client from Http
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public class HttpTransport implements Transport
+{
+    // ------------------------------------------------------------------- public methods
+    /**
+     * Issues a GET over the shared client, see Http.get()
+     *
+     * @param url             - the url to fetch
+     * @param strETag         - the ETag of the last response, or null
+     * @param strLastModified - the Last-Modified of the last response, or null
+     * @return                - the response, it must be closed to free the connection
+     * @throws IOException    - if the request failed
+     */
+    @Override
+    public Transport.Response get(String url, String strETag, String strLastModified) throws IOException
+    {
+        final HttpResponse objHttpResponse = Http.get(url, strETag, strLastModified);
+        final HttpEntity   objHttpEntity   = objHttpResponse.getEntity();
+
+        return new Transport.Response()
+        {
+            @Override
+            public int getStatusCode()
+            {
+                return objHttpResponse.getStatusLine().getStatusCode();
+            }
+
+            @Override
+            public String getHeader(String strName)
+            {
+                return Http.getHeader(objHttpResponse, strName);
+            }
+
+            @Override
+            public InputStream getContent() throws IOException
+            {
+                if (objHttpEntity == null)
+                {
+                    throw new IOException("The response has no body");
+                }
+
+                return Http.getContent(objHttpEntity);
+            }
+
+            @Override
+            public void close() throws IOException
+            {
+                // releasing the entity hands the connection back to the pool
+                if (objHttpEntity != null)
+                {
+                    objHttpEntity.consumeContent();
+                }
+            }
+        };
+    }
+}
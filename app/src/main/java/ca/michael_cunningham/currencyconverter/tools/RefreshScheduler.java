@@ -0,0 +1,181 @@
+package ca.michael_cunningham.currencyconverter.tools;
+
+import android.os.Handler;
+import java.util.Random;
+
+/**
+ * RefreshScheduler
+ * ------------------------
+ *
+ * Runs a refresh on an interval that follows the market. The interval is the time the rates are
+ * expected to take to move by a target amount, from a moving average of how fast they have moved
+ * between past refreshes, kept between a minimum and a maximum. A failed refresh backs off
+ * exponentially instead, with jitter so many devices coming back at once do not retry in step.
+ *
+ * Every method must be called from the thread of the handler the scheduler was given.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public class RefreshScheduler
+{
+    // ------------------------------------------------------------------- private class constants
+    private static final double TARGET_MOVE          = 0.0005;
+    private static final double SPEED_WEIGHT         = 0.3;
+    private static final int    MAX_BACKOFF_EXPONENT = 10;
+
+    // ------------------------------------------------------------------- private global variables
+    private final Handler  objHandler;
+    private final Runnable runRefresh;
+    private final Random   objRandom;
+    private final long     lngMinInterval;
+    private final long     lngMaxInterval;
+    private final long     lngMaxBackoff;
+    private long           lngInterval;
+    private long           lngLastRefreshed;
+    private double         dblSpeed;
+    private int            intFailures;
+    private boolean        isStarted;
+
+    // ------------------------------------------------------------------- constructors
+    /**
+     * Constructs a new RefreshScheduler object, stopped
+     *
+     * @param objHandler     - the handler the refresh is run on
+     * @param runRefresh     - starts a refresh, its outcome is reported back with onRefreshed(),
+     *                         onRefreshFailed() or onRefreshSkipped()
+     * @param lngMinInterval - the shortest interval between refreshes, in milliseconds
+     * @param lngMaxInterval - the longest interval between refreshes, in milliseconds
+     * @param lngMaxBackoff  - the longest delay after failed refreshes, in milliseconds
+     */
+    public RefreshScheduler(Handler objHandler, Runnable runRefresh, long lngMinInterval, long lngMaxInterval, long lngMaxBackoff)
+    {
+        this.objHandler     = objHandler;
+        this.runRefresh     = runRefresh;
+        this.objRandom      = new Random();
+        this.lngMinInterval = lngMinInterval;
+        this.lngMaxInterval = lngMaxInterval;
+        this.lngMaxBackoff  = lngMaxBackoff;
+        this.lngInterval    = lngMaxInterval;
+        this.dblSpeed       = -1;
+    }
+
+    // ------------------------------------------------------------------- get methods
+    /**
+     * Get the interval the next refresh is scheduled on when the last one succeeded
+     *
+     * @return - the interval in milliseconds
+     */
+    public long getInterval()
+    {
+        return lngInterval;
+    }
+
+    /**
+     * Get the number of refreshes that have failed in a row
+     *
+     * @return - the failure count
+     */
+    public int getFailureCount()
+    {
+        return intFailures;
+    }
+
+    // ------------------------------------------------------------------- public methods
+    /**
+     * Starts scheduling, the first refresh is due one interval after the last one, or one interval
+     * from now if there has not been one yet
+     */
+    public void start()
+    {
+        if (!isStarted)
+        {
+            isStarted = true;
+
+            long elapsed = (lngLastRefreshed == 0) ? 0 : (System.currentTimeMillis() - lngLastRefreshed);
+
+            schedule(Math.max(0, lngInterval - elapsed));
+        }
+    }
+
+    /**
+     * Stops scheduling, a refresh already running is left to finish
+     */
+    public void stop()
+    {
+        isStarted = false;
+
+        objHandler.removeCallbacks(runRefresh);
+    }
+
+    /**
+     * Reports a successful refresh, whoever started it, and schedules the next one
+     *
+     * @param move - how far the rates moved since the refresh before, as a relative change
+     */
+    public void onRefreshed(double move)
+    {
+        long now = System.currentTimeMillis();
+
+        if (lngLastRefreshed > 0)
+        {
+            long   elapsed = Math.max(1, now - lngLastRefreshed);
+            double speed   = move / elapsed;
+
+            dblSpeed = (dblSpeed < 0) ? speed : ((SPEED_WEIGHT * speed) + ((1 - SPEED_WEIGHT) * dblSpeed));
+        }
+
+        // a quiet market is left alone for as long as allowed, a busy one is checked more often
+        if (dblSpeed == 0)
+        {
+            lngInterval = lngMaxInterval;
+        }
+        else if (dblSpeed > 0)
+        {
+            lngInterval = Math.max(lngMinInterval, Math.min(lngMaxInterval, (long) (TARGET_MOVE / dblSpeed)));
+        }
+
+        lngLastRefreshed = now;
+        intFailures      = 0;
+
+        schedule(lngInterval);
+    }
+
+    /**
+     * Reports a failed refresh and schedules a retry, twice as far off as the last one
+     */
+    public void onRefreshFailed()
+    {
+        intFailures++;
+
+        long delay = Math.min(lngMaxBackoff, lngMinInterval << Math.min(intFailures, MAX_BACKOFF_EXPONENT));
+
+        // equal jitter, at least half the delay so a retry is never immediate
+        schedule((delay / 2) + (long) (objRandom.nextDouble() * (delay / 2)));
+    }
+
+    /**
+     * Reports a refresh that was not run, ie. without an allowed network, and tries again later
+     */
+    public void onRefreshSkipped()
+    {
+        schedule(lngInterval);
+    }
+
+    // ------------------------------------------------------------------- private methods
+    /**
+     * Replaces the scheduled refresh, if started
+     *
+     * @param delay - milliseconds until the refresh is due
+     */
+    private void schedule(long delay)
+    {
+        objHandler.removeCallbacks(runRefresh);
+
+        if (isStarted)
+        {
+            objHandler.postDelayed(runRefresh, delay);
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package ca.michael_cunningham.currencyconverter.tools;
+
+import android.os.Handler;
+import android.os.Looper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskEngine
+ * ------------------------
+ *
+ * Runs background tasks on named lanes, each lane its own thread, so a slow task on one lane never
+ * holds up the tasks of another. A task can supersede everything still queued or running on its
+ * lane, the superseded tasks are cancelled and their results are never delivered. Results are
+ * handed back on the main thread, in the same shape as an AsyncTask.
+ *
+ * Lanes must only be used from the main thread.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public class TaskEngine
+{
+    // ------------------------------------------------------------------- private class constants
+    private static final long IDLE_THREAD_MS = 30000;
+
+    // ------------------------------------------------------------------- private global variables
+    private final Handler objMainHandler;
+
+    // ------------------------------------------------------------------- constructors
+    /**
+     * Constructs a new TaskEngine object delivering its results on the main thread
+     */
+    public TaskEngine()
+    {
+        this.objMainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    // ------------------------------------------------------------------- public methods
+    /**
+     * Creates a new lane, its thread is started on the first task and let go of once idle
+     *
+     * @param strName - the name of the lane's thread
+     * @return        - the lane
+     */
+    public Lane newLane(String strName)
+    {
+        return new Lane(strName);
+    }
+
+    // ------------------------------------------------------------------- public inner class
+    /**
+     * Task
+     * ------------------------
+     *
+     * A unit of background work, onPreExecute, onPostExecute and onCancelled run on the main thread
+     *
+     * @author  Michael Cunningham (http://michael-cunningham.ca)
+     * @since   October 18th, 2026
+     * @version v1.1
+     */
+    public abstract static class Task<Result>
+    {
+        private volatile boolean isCancelled;
+        private volatile boolean isStarted;
+        private Future<?>        objFuture;
+        private long             lngTraceId;
+
+        /**
+         * Run on the main thread as the task is queued
+         */
+        protected void onPreExecute()
+        {
+        }
+
+        /**
+         * The core functionality of the task at hand, run on the lane's thread
+         *
+         * @return - the result handed to onPostExecute()
+         */
+        protected abstract Result doInBackground();
+
+        /**
+         * Run on the main thread after the task has completed, unless it was cancelled
+         *
+         * @param result - the object returned from doInBackground()
+         */
+        protected void onPostExecute(Result result)
+        {
+        }
+
+        /**
+         * Run on the main thread instead of onPostExecute() when the task was cancelled or failed
+         */
+        protected void onCancelled()
+        {
+        }
+
+        /**
+         * Get whether the task has been cancelled, long running work should check this
+         *
+         * @return - true/false if the task has been cancelled
+         */
+        public final boolean isCancelled()
+        {
+            return isCancelled;
+        }
+
+        /**
+         * Cancels the task, interrupting it if it is already running, its onCancelled() is still called
+         */
+        public final void cancel()
+        {
+            isCancelled = true;
+
+            // a queued task is left in the queue, cancelling its future would drop it without it
+            // ever being delivered, so its runnable sees the flag and skips straight to onCancelled()
+            if (isStarted && (objFuture != null))
+            {
+                objFuture.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Lane
+     * ------------------------
+     *
+     * A single thread running its tasks one after the other, in the order they were queued
+     *
+     * @author  Michael Cunningham (http://michael-cunningham.ca)
+     * @since   October 18th, 2026
+     * @version v1.1
+     */
+    public class Lane
+    {
+        private final ThreadPoolExecutor objExecutor;
+        private final List<Task<?>>      lstActive;
+        private final String             strName;
+        private int                      intSuperseded;
+
+        /**
+         * Constructs a new Lane object
+         *
+         * @param strName - the name of the lane's thread
+         */
+        private Lane(final String strName)
+        {
+            this.lstActive   = new ArrayList<Task<?>>();
+            this.strName     = strName;
+            this.objExecutor = new ThreadPoolExecutor(1, 1, IDLE_THREAD_MS, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(Runnable runnable)
+                {
+                    Thread objThread = new Thread(runnable, strName);
+                    objThread.setDaemon(true);
+
+                    return objThread;
+                }
+            });
+
+            objExecutor.allowCoreThreadTimeOut(true);
+        }
+
+        /**
+         * Get the number of tasks cancelled because a later task superseded them
+         *
+         * @return - the superseded count
+         */
+        public int getSupersededCount()
+        {
+            return intSuperseded;
+        }
+
+        /**
+         * Get whether the lane has a task queued or running
+         *
+         * @return - true/false if the lane is busy
+         */
+        public boolean isBusy()
+        {
+            return !lstActive.isEmpty();
+        }
+
+        /**
+         * Queues a task behind those already on the lane
+         *
+         * @param objTask - the task
+         */
+        public <Result> void execute(final Task<Result> objTask)
+        {
+            // the lane's span runs from the task being queued until its result is delivered
+            objTask.lngTraceId = Tracer.newId();
+            Tracer.beginAsync(strName, objTask.lngTraceId);
+
+            lstActive.add(objTask);
+            objTask.onPreExecute();
+
+            objTask.objFuture = objExecutor.submit(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    Result  result = null;
+                    boolean failed = false;
+
+                    objTask.isStarted = true;
+
+                    if (!objTask.isCancelled())
+                    {
+                        Tracer.begin("doInBackground");
+
+                        try
+                        {
+                            result = objTask.doInBackground();
+                        }
+                        catch (RuntimeException e)
+                        {
+                            e.printStackTrace();
+                            failed = true;
+                        }
+                        finally
+                        {
+                            Tracer.end("doInBackground");
+                        }
+                    }
+
+                    deliver(objTask, result, failed);
+                }
+            });
+        }
+
+        /**
+         * Cancels every task queued or running on the lane, then queues a task in their place
+         *
+         * @param objTask - the task
+         */
+        public <Result> void supersede(Task<Result> objTask)
+        {
+            // a task cancelled before stays active until it is delivered, it is only counted once
+            for (Task<?> objActive : lstActive)
+            {
+                if (!objActive.isCancelled())
+                {
+                    intSuperseded++;
+                }
+            }
+
+            cancelAll();
+            execute(objTask);
+        }
+
+        /**
+         * Cancels every task queued or running on the lane, their onCancelled() is still called
+         */
+        public void cancelAll()
+        {
+            for (Task<?> objTask : new ArrayList<Task<?>>(lstActive))
+            {
+                objTask.cancel();
+            }
+        }
+
+        /**
+         * Hands the outcome of a task back on the main thread
+         *
+         * @param objTask - the task
+         * @param result  - the object returned from doInBackground()
+         * @param failed  - true/false if doInBackground() threw
+         */
+        private <Result> void deliver(final Task<Result> objTask, final Result result, final boolean failed)
+        {
+            objMainHandler.post(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    lstActive.remove(objTask);
+
+                    // cancelled is checked again here, the task may have been superseded after it finished
+                    if (failed || objTask.isCancelled())
+                    {
+                        Tracer.begin("onCancelled");
+                        objTask.onCancelled();
+                        Tracer.end("onCancelled");
+                    }
+                    else
+                    {
+                        Tracer.begin("onPostExecute");
+                        objTask.onPostExecute(result);
+                        Tracer.end("onPostExecute");
+                    }
+
+                    Tracer.endAsync(strName, objTask.lngTraceId);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package ca.michael_cunningham.currencyconverter.rates;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * BenchmarkPayloads
+ * ------------------------
+ *
+ * An abstract Java class used for building synthetic, but realistic, inputs for the benchmarks.
+ * The currency table is made of real ISO 4217 codes and the responses have the very shape of a
+ * yahoo.finance.xchange response, with every pair of the table quoted, as the app used to ask for.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public abstract class BenchmarkPayloads
+{
+    // ------------------------------------------------------------------- private class constants
+    private static final long SEED = 42;
+
+    /**
+     * Get a currency table of real codes, USD first as the app has it
+     *
+     * @param count - the number of currencies, up to the number the JVM knows of
+     * @return      - the currency codes
+     */
+    public static String[] getCurrencies(int count)
+    {
+        List<String> lstCodes = new ArrayList<String>();
+
+        for (Currency objCurrency : Currency.getAvailableCurrencies())
+        {
+            if (!objCurrency.getCurrencyCode().equals("USD"))
+            {
+                lstCodes.add(objCurrency.getCurrencyCode());
+            }
+        }
+
+        Collections.sort(lstCodes);
+        lstCodes.add(0, "USD");
+
+        if (count > lstCodes.size())
+        {
+            throw new IllegalArgumentException("Only " + lstCodes.size() + " currencies are known");
+        }
+
+        return lstCodes.subList(0, count).toArray(new String[count]);
+    }
+
+    /**
+     * Get every pair of a currency table, identity pairs included, in the order the app used to ask
+     *
+     * @param count - the number of currencies
+     * @return      - the pairs, each one (from * count + to)
+     */
+    public static int[] getAllPairs(int count)
+    {
+        int[] aryPairs = new int[count * count];
+
+        for (int pair = 0; pair < aryPairs.length; pair++)
+        {
+            aryPairs[pair] = pair;
+        }
+
+        return aryPairs;
+    }
+
+    /**
+     * Get a response quoting every pair of a currency table
+     *
+     * @param aryCurrencies - the currency table
+     * @return              - the JSON response
+     */
+    public static String getResponse(String[] aryCurrencies)
+    {
+        Random        objRandom = new Random(SEED);
+        int           count     = aryCurrencies.length;
+        StringBuilder strJson   = new StringBuilder(count * count * 160);
+
+        strJson.append("{\"query\":{\"count\":").append(count * count)
+               .append(",\"created\":\"2026-10-18T21:04:09Z\",\"lang\":\"en-US\",\"results\":{\"rate\":[");
+
+        for (int i = 0; i < count; i++)
+        {
+            for (int x = 0; x < count; x++)
+            {
+                double rate = (i == x) ? 1 : (0.01 + (objRandom.nextDouble() * 150));
+
+                if ((i + x) > 0)
+                {
+                    strJson.append(',');
+                }
+
+                strJson.append("{\"id\":\"").append(aryCurrencies[i]).append(aryCurrencies[x])
+                       .append("\",\"Name\":\"").append(aryCurrencies[i]).append('/').append(aryCurrencies[x])
+                       .append("\",\"Rate\":\"").append(String.format(Locale.US, "%.4f", rate))
+                       .append("\",\"Date\":\"10/18/2026\",\"Time\":\"9:04pm")
+                       .append("\",\"Ask\":\"").append(String.format(Locale.US, "%.4f", rate * 1.0002))
+                       .append("\",\"Bid\":\"").append(String.format(Locale.US, "%.4f", rate * 0.9998))
+                       .append("\"}");
+            }
+        }
+
+        return strJson.append("]}}}").toString();
+    }
+
+    /**
+     * Get the snapshot a response parses to
+     *
+     * @param aryCurrencies - the currency table
+     * @param strResponse   - the JSON response
+     * @return              - the snapshot
+     * @throws IOException - if the response could not be parsed
+     */
+    public static RateSnapshot getSnapshot(String[] aryCurrencies, String strResponse) throws IOException
+    {
+        RateSnapshot.Builder objBuilder = new RateSnapshot.Builder(aryCurrencies);
+
+        YahooRateParser.parse(new StringReader(strResponse), objBuilder);
+
+        return objBuilder.build();
+    }
+}
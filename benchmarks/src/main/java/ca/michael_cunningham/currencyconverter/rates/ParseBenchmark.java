@@ -0,0 +1,151 @@
+package ca.michael_cunningham.currencyconverter.rates;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ParseBenchmark
+ * ------------------------
+ *
+ * Measures what a convert costs. Up to v1.0 every convert parsed the whole cached response with
+ * org.json and scanned the rates for the pair, now a refresh parses the response once into a
+ * snapshot, a cold start decodes the snapshot from the disk and a convert is an array access.
+ * The pair looked up is the last one of the table, the worst case of the scan. The pair id of
+ * every quote in a response is looked up too, once by scanning the table with substrings as the
+ * parser used to, and once with the CurrencyRegistry.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark
+{
+    private static final String[] JSON_TAGS = { "Rate", "Date", "Time", "Ask", "Bid" };
+
+    @Param({ "7", "50", "170" })
+    public int currencies;
+
+    private String[]         aryCurrencies;
+    private String           strResponse;
+    private String           strPairId;
+    private int              intPair;
+    private RateSnapshot     objSnapshot;
+    private ByteBuffer       objEncoded;
+    private CurrencyRegistry objRegistry;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        aryCurrencies = BenchmarkPayloads.getCurrencies(currencies);
+        strResponse   = BenchmarkPayloads.getResponse(aryCurrencies);
+        strPairId     = aryCurrencies[currencies - 1] + aryCurrencies[currencies - 2];
+        objSnapshot   = BenchmarkPayloads.getSnapshot(aryCurrencies, strResponse);
+        intPair       = objSnapshot.getPair(currencies - 1, currencies - 2);
+        objEncoded    = SnapshotCodec.encode(objSnapshot, 0);
+        objRegistry   = new CurrencyRegistry(aryCurrencies);
+    }
+
+    @Benchmark
+    public String[] legacyConvert() throws JSONException
+    {
+        // the cached convert as JSONParser.doInBackground() ran it up to v1.0
+        String[] aryReturn = new String[JSON_TAGS.length];
+
+        JSONObject allJsonData  = new JSONObject(strResponse);
+        JSONObject childQuery   = allJsonData.getJSONObject("query");
+        JSONObject childResults = childQuery.getJSONObject("results");
+        JSONArray  childRate    = childResults.getJSONArray("rate");
+
+        for (int i = 0; i < childRate.length(); i++)
+        {
+            JSONObject row = childRate.getJSONObject(i);
+            String     id  = row.getString("id");
+
+            if (id.contentEquals(strPairId))
+            {
+                for (int x = 0; x < JSON_TAGS.length; x++)
+                {
+                    aryReturn[x] = row.getString(JSON_TAGS[x]);
+                }
+            }
+        }
+
+        return aryReturn;
+    }
+
+    @Benchmark
+    public RateSnapshot streamingParse() throws IOException
+    {
+        RateSnapshot.Builder objBuilder = new RateSnapshot.Builder(aryCurrencies);
+
+        YahooRateParser.parse(new StringReader(strResponse), objBuilder);
+
+        return objBuilder.build();
+    }
+
+    @Benchmark
+    public RateSnapshot snapshotDecode()
+    {
+        return SnapshotCodec.decode(objEncoded.duplicate());
+    }
+
+    @Benchmark
+    public double snapshotLookup()
+    {
+        return objSnapshot.getRate(intPair);
+    }
+
+    @Benchmark
+    public int legacyPairIdLookup()
+    {
+        // the lookup YahooRateParser made for every quote before the CurrencyRegistry
+        return objSnapshot.getPair(indexOf(strPairId.substring(0, 3)), indexOf(strPairId.substring(3)));
+    }
+
+    @Benchmark
+    public int registryPairIdLookup()
+    {
+        return objRegistry.getPair(strPairId);
+    }
+
+    /**
+     * Get the position of a currency code by scanning the table, as RateSnapshot.Builder did
+     *
+     * @param strCurrency - the currency code
+     * @return            - the position, or -1 if it is not in the table
+     */
+    private int indexOf(String strCurrency)
+    {
+        for (int i = 0; i < aryCurrencies.length; i++)
+        {
+            if (aryCurrencies[i].equals(strCurrency))
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
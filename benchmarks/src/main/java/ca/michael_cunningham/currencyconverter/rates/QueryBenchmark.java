@@ -0,0 +1,80 @@
+package ca.michael_cunningham.currencyconverter.rates;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * QueryBenchmark
+ * ------------------------
+ *
+ * Measures building the YQL query for every pair of a currency table, the way the refresh used to
+ * build it, by String concatenation in a nested loop, against the StringBuilder it uses now
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBenchmark
+{
+    @Param({ "7", "50", "170" })
+    public int currencies;
+
+    private String[] aryCurrencies;
+    private int[]    aryPairs;
+
+    @Setup
+    public void setUp()
+    {
+        aryCurrencies = BenchmarkPayloads.getCurrencies(currencies);
+        aryPairs      = BenchmarkPayloads.getAllPairs(currencies);
+    }
+
+    @Benchmark
+    public String legacyConcat()
+    {
+        // the query string as JSONParser.doInBackground() built it up to v1.0
+        int    parametersLength = aryCurrencies.length;
+        String strParameter     = "";
+
+        for (int i = 0; i < parametersLength; i++)
+        {
+            for (int x = 0; x < parametersLength; x++)
+            {
+                strParameter += "%22" + aryCurrencies[i] + aryCurrencies[x];
+
+                if ((i == (parametersLength - 1)) && (x == (parametersLength - 1)))
+                {
+                    strParameter += "%22";
+                }
+                else
+                {
+                    strParameter += "%22%2C%20";
+                }
+            }
+        }
+
+        return strParameter;
+    }
+
+    @Benchmark
+    public String providerUrl()
+    {
+        return YahooRateProvider.getUrl(aryCurrencies, aryPairs);
+    }
+}
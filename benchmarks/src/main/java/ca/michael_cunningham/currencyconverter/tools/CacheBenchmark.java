@@ -0,0 +1,89 @@
+package ca.michael_cunningham.currencyconverter.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import ca.michael_cunningham.currencyconverter.rates.BenchmarkPayloads;
+import ca.michael_cunningham.currencyconverter.rates.RateSnapshot;
+import ca.michael_cunningham.currencyconverter.rates.SnapshotCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CacheBenchmark
+ * ------------------------
+ *
+ * Measures a round trip of the cache through the disk, the raw response serialized as a String
+ * with saveFile() and loadFile() as it was cached up to v1.0, against the encoded snapshot written
+ * with saveBuffer() and read back with loadBuffer()
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheBenchmark
+{
+    @Param({ "7", "50", "170" })
+    public int currencies;
+
+    private File         objDirectory;
+    private String       strResponse;
+    private RateSnapshot objSnapshot;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        String[] aryCurrencies = BenchmarkPayloads.getCurrencies(currencies);
+
+        objDirectory = File.createTempFile("cache", "bench");
+        objDirectory.delete();
+        objDirectory.mkdir();
+
+        strResponse = BenchmarkPayloads.getResponse(aryCurrencies);
+        objSnapshot = BenchmarkPayloads.getSnapshot(aryCurrencies, strResponse);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        for (File objFile : objDirectory.listFiles())
+        {
+            objFile.delete();
+        }
+
+        objDirectory.delete();
+    }
+
+    @Benchmark
+    public Object legacyJsonRoundTrip()
+    {
+        Cache.saveFile(strResponse, objDirectory, "cache.json");
+
+        return Cache.loadFile(objDirectory, "cache.json");
+    }
+
+    @Benchmark
+    public RateSnapshot snapshotRoundTrip()
+    {
+        Cache.saveBuffer(SnapshotCodec.encode(objSnapshot, 0), objDirectory, "cache.rates");
+
+        return SnapshotCodec.decode(Cache.loadBuffer(objDirectory, "cache.rates"));
+    }
+}
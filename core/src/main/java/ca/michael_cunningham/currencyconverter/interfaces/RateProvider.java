@@ -0,0 +1,29 @@
+package ca.michael_cunningham.currencyconverter.interfaces;
+
+import java.io.IOException;
+import ca.michael_cunningham.currencyconverter.rates.RateSnapshot;
+
+/**
+ * RateProvider
+ * ------------------------
+ *
+ * Interface for a source of exchange rates, implementations are called from background threads
+ * and must be thread safe
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public interface RateProvider
+{
+    /**
+     * Fetches the quotes of the given pairs
+     *
+     * @param aryCurrencies - the currency table the pairs index into
+     * @param aryPairs      - the pairs to fetch, each one (from * currency count + to)
+     * @return              - a builder holding the fetched quotes, or null if nothing has changed
+     *                        since the last time this provider returned the same pairs
+     * @throws IOException  - if the quotes could not be fetched
+     */
+    RateSnapshot.Builder fetch(String[] aryCurrencies, int[] aryPairs) throws IOException;
+}
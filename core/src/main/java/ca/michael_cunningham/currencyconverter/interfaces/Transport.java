@@ -0,0 +1,66 @@
+package ca.michael_cunningham.currencyconverter.interfaces;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Transport
+ * ------------------------
+ *
+ * Interface for the HTTP client a RateProvider sends its requests over, so the providers do not
+ * depend on the client the platform happens to ship, implementations must be thread safe
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public interface Transport
+{
+    /**
+     * Issues a GET asking for a gzipped response, conditional on the given validators
+     *
+     * @param url             - the url to fetch
+     * @param strETag         - the ETag of the last response, or null
+     * @param strLastModified - the Last-Modified of the last response, or null
+     * @return                - the response, it must be closed to free the connection
+     * @throws IOException    - if the request failed
+     */
+    Response get(String url, String strETag, String strLastModified) throws IOException;
+
+    /**
+     * Response
+     * ------------------------
+     *
+     * A response whose headers have arrived, the body is read from getContent()
+     *
+     * @author  Michael Cunningham (http://michael-cunningham.ca)
+     * @since   October 18th, 2026
+     * @version v1.1
+     */
+    interface Response extends Closeable
+    {
+        /**
+         * Get the status code of the response
+         *
+         * @return - the status code, ie. 200 or 304
+         */
+        int getStatusCode();
+
+        /**
+         * Get the value of a response header
+         *
+         * @param strName - the name of the header
+         * @return        - the value, or null if the header is not there
+         */
+        String getHeader(String strName);
+
+        /**
+         * Get the body of the response, already un-gzipped
+         *
+         * @return             - the decoded body
+         * @throws IOException - if the body could not be opened
+         */
+        InputStream getContent() throws IOException;
+    }
+}
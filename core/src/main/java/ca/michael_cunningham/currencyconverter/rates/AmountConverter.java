@@ -0,0 +1,292 @@
+package ca.michael_cunningham.currencyconverter.rates;
+
+import java.util.Currency;
+
+/**
+ * AmountConverter
+ * ------------------------
+ *
+ * Converts amounts between currencies in fixed-point. An amount is a long count of the minor units
+ * of its currency, ie. cents for USD and yen for JPY, and every rate of a snapshot is fixed to ten
+ * decimal places once, up front. A conversion is then a 128-bit multiply, a 128-bit by 64-bit
+ * divide and a banker's rounding to the minor units of the target currency, all on longs, so no
+ * BigDecimal, String or other object is created per conversion.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public class AmountConverter
+{
+    // ------------------------------------------------------------------- public class constants
+    public static final byte SIDE_MID      = 0;
+    public static final byte SIDE_BID      = 1;
+    public static final byte SIDE_ASK      = 2;
+    public static final int  RATE_DECIMALS = 10;
+    public static final long NOT_AVAILABLE = Long.MIN_VALUE;
+
+    // ------------------------------------------------------------------- private class constants
+    private static final int    DEFAULT_MINOR_UNITS = 2;
+    private static final long   MASK_32             = 0xFFFFFFFFL;
+    private static final long[] POWERS_OF_TEN       = {
+        1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L,
+        10000000000L, 100000000000L, 1000000000000L, 10000000000000L, 100000000000000L,
+        1000000000000000L, 10000000000000000L, 100000000000000000L, 1000000000000000000L
+    };
+
+    // ------------------------------------------------------------------- private global variables
+    private final RateSnapshot objSnapshot;
+    private final int          intCount;
+    private final byte[]       aryMinorUnits;
+    private final long[]       aryMids;
+    private final long[]       aryBids;
+    private final long[]       aryAsks;
+
+    // ------------------------------------------------------------------- constructors
+    /**
+     * Constructs a new AmountConverter object, fixing every rate of the snapshot
+     *
+     * @param objSnapshot - the rates to convert with
+     */
+    public AmountConverter(RateSnapshot objSnapshot)
+    {
+        int count = objSnapshot.getCount();
+        int pairs = count * count;
+
+        this.objSnapshot   = objSnapshot;
+        this.intCount      = count;
+        this.aryMinorUnits = new byte[count];
+        this.aryMids       = new long[pairs];
+        this.aryBids       = new long[pairs];
+        this.aryAsks       = new long[pairs];
+
+        for (int i = 0; i < count; i++)
+        {
+            aryMinorUnits[i] = (byte) getDefaultMinorUnits(objSnapshot.getCurrency(i));
+        }
+
+        for (int pair = 0; pair < pairs; pair++)
+        {
+            aryMids[pair] = toFixed(objSnapshot.aryRates[pair]);
+            aryBids[pair] = toFixed(objSnapshot.aryBids[pair]);
+            aryAsks[pair] = toFixed(objSnapshot.aryAsks[pair]);
+        }
+    }
+
+    // ------------------------------------------------------------------- get methods
+    /**
+     * Get the snapshot the rates were fixed from
+     *
+     * @return - the snapshot
+     */
+    public RateSnapshot getSnapshot()
+    {
+        return objSnapshot;
+    }
+
+    /**
+     * Get the number of minor units digits of a currency of the snapshot
+     *
+     * @param index - the currency position
+     * @return      - the digits, ie. 2 for USD and 0 for JPY
+     */
+    public int getMinorUnits(int index)
+    {
+        return aryMinorUnits[index];
+    }
+
+    /**
+     * Get a rate as it is used in conversions
+     *
+     * @param pair - the pair index
+     * @param side - SIDE_MID, SIDE_BID or SIDE_ASK
+     * @return     - the rate scaled by 10^RATE_DECIMALS, or NOT_AVAILABLE
+     */
+    public long getFixedRate(int pair, byte side)
+    {
+        switch (side)
+        {
+            case SIDE_BID :
+                return aryBids[pair];
+
+            case SIDE_ASK :
+                return aryAsks[pair];
+
+            default :
+                return aryMids[pair];
+        }
+    }
+
+    // ------------------------------------------------------------------- public methods
+    /**
+     * Converts an amount, rounding half to even to the minor units of the target currency. The
+     * bid is what is received for selling the from currency, the ask what is paid to buy it.
+     *
+     * @param from   - the position of the currency the amount is in
+     * @param to     - the position of the currency to convert to
+     * @param amount - the amount in minor units of the from currency
+     * @param side   - SIDE_MID, SIDE_BID or SIDE_ASK
+     * @return       - the amount in minor units of the to currency, or NOT_AVAILABLE without a rate
+     * @throws ArithmeticException - if the converted amount does not fit in a long
+     */
+    public long convert(int from, int to, long amount, byte side)
+    {
+        long rate = getFixedRate((from * intCount) + to, side);
+
+        if ((rate == NOT_AVAILABLE) || (amount == NOT_AVAILABLE))
+        {
+            return NOT_AVAILABLE;
+        }
+
+        // amount * rate * 10^toDigits / (10^RATE_DECIMALS * 10^fromDigits), on magnitudes
+        long magnitude = Math.abs(amount);
+        long high      = multiplyHigh(magnitude, rate);
+        long low       = magnitude * rate;
+        long scale     = POWERS_OF_TEN[aryMinorUnits[to]];
+
+        if (scale != 1)
+        {
+            long lowLow  = (low & MASK_32) * scale;
+            long lowHigh = (low >>> 32) * scale;
+            long middle  = (lowLow >>> 32) + lowHigh;
+
+            if (high > (Long.MAX_VALUE / scale))
+            {
+                throw new ArithmeticException("Converted amount overflows");
+            }
+
+            low  = (middle << 32) | (lowLow & MASK_32);
+            high = (high * scale) + (middle >>> 32);
+        }
+
+        long result = divideHalfEven(high, low, POWERS_OF_TEN[RATE_DECIMALS + aryMinorUnits[from]]);
+
+        return (amount < 0) ? -result : result;
+    }
+
+    // ------------------------------------------------------------------- private methods
+    /**
+     * Get the minor units of a currency code, falling back on cents for a code Java does not know
+     *
+     * @param strCurrency - the ISO 4217 code
+     * @return            - the number of minor units digits
+     */
+    private static int getDefaultMinorUnits(String strCurrency)
+    {
+        try
+        {
+            int digits = Currency.getInstance(strCurrency).getDefaultFractionDigits();
+
+            // metals and the like have no minor units at all, they are quoted to cents here
+            return (digits < 0) ? DEFAULT_MINOR_UNITS : digits;
+        }
+        catch (IllegalArgumentException e)
+        {
+            return DEFAULT_MINOR_UNITS;
+        }
+    }
+
+    /**
+     * Fixes a rate to RATE_DECIMALS decimal places
+     *
+     * @param rate - the rate
+     * @return     - the fixed rate, or NOT_AVAILABLE if the rate is missing or out of range
+     */
+    private static long toFixed(double rate)
+    {
+        double scaled = rate * POWERS_OF_TEN[RATE_DECIMALS];
+
+        if (Double.isNaN(scaled) || (scaled < 0) || (scaled >= Long.MAX_VALUE))
+        {
+            return NOT_AVAILABLE;
+        }
+
+        return Math.round(scaled);
+    }
+
+    /**
+     * Get the high 64 bits of the 128-bit product of two non-negative longs
+     *
+     * @param first  - the first factor
+     * @param second - the second factor
+     * @return       - the high half of the product, the low half is the plain long product
+     */
+    private static long multiplyHigh(long first, long second)
+    {
+        long firstLow   = first & MASK_32;
+        long firstHigh  = first >>> 32;
+        long secondLow  = second & MASK_32;
+        long secondHigh = second >>> 32;
+
+        long lowLow   = firstLow * secondLow;
+        long highLow  = firstHigh * secondLow;
+        long lowHigh  = firstLow * secondHigh;
+        long highHigh = firstHigh * secondHigh;
+
+        long middle = (lowLow >>> 32) + (highLow & MASK_32) + lowHigh;
+
+        return highHigh + (highLow >>> 32) + (middle >>> 32);
+    }
+
+    /**
+     * Divides an unsigned 128-bit value by a positive long, one bit at a time, rounding half to even
+     *
+     * @param high    - the high 64 bits of the dividend
+     * @param low     - the low 64 bits of the dividend
+     * @param divisor - the divisor
+     * @return        - the rounded quotient
+     * @throws ArithmeticException - if the quotient does not fit in a long
+     */
+    private static long divideHalfEven(long high, long low, long divisor)
+    {
+        if (high >= divisor)
+        {
+            throw new ArithmeticException("Converted amount overflows");
+        }
+
+        long remainder = high;
+        long quotient  = 0;
+
+        for (int bit = 63; bit >= 0; bit--)
+        {
+            // the remainder is below the divisor, so shifting it left never loses a bit
+            remainder = (remainder << 1) | ((low >>> bit) & 1);
+            quotient <<= 1;
+
+            if (compareUnsigned(remainder, divisor) >= 0)
+            {
+                remainder -= divisor;
+                quotient  |= 1;
+            }
+        }
+
+        int half = compareUnsigned(remainder << 1, divisor);
+
+        if ((half > 0) || ((half == 0) && ((quotient & 1) != 0)))
+        {
+            quotient++;
+        }
+
+        if (quotient < 0)
+        {
+            throw new ArithmeticException("Converted amount overflows");
+        }
+
+        return quotient;
+    }
+
+    /**
+     * Compares two longs as if they were unsigned
+     *
+     * @param first  - the first value
+     * @param second - the second value
+     * @return       - negative, zero or positive as the first is below, equal to or above the second
+     */
+    private static int compareUnsigned(long first, long second)
+    {
+        first  += Long.MIN_VALUE;
+        second += Long.MIN_VALUE;
+
+        return (first < second) ? -1 : ((first == second) ? 0 : 1);
+    }
+}
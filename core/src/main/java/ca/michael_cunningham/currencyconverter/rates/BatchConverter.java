@@ -0,0 +1,205 @@
+package ca.michael_cunningham.currencyconverter.rates;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BatchConverter
+ * ------------------------
+ *
+ * An abstract Java class used for converting many amounts at once, ie. the lines of an invoice or
+ * the positions of a portfolio. The amounts and currency positions come in as parallel primitive
+ * arrays and the results are written into an array the caller owns, so a batch allocates nothing
+ * on the sequential path. Large batches are split into ranges and converted on every core.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public abstract class BatchConverter
+{
+    // ------------------------------------------------------------------- public class constants
+    public static final int PARALLEL_THRESHOLD = 16384;
+
+    // ------------------------------------------------------------------- private class constants
+    private static final int MIN_RANGE = 4096;
+
+    // ------------------------------------------------------------------- private global variables
+    private static ExecutorService objExecutor;
+
+    /**
+     * Converts a batch of amounts with the mid rate, in parallel if the batch is large enough
+     *
+     * @param objSnapshot - the rates to convert with
+     * @param aryFrom     - the position of the currency each amount is in
+     * @param aryTo       - the position of the currency each amount is converted to
+     * @param aryAmounts  - the amounts
+     * @param aryResults  - receives the converted amounts, NaN where a position is out of range or
+     *                      the rate is not available
+     * @param offset      - the first index of the batch in every array
+     * @param length      - the number of amounts in the batch
+     * @throws InterruptedException - if interrupted while waiting on a parallel batch
+     */
+    public static void convert(RateSnapshot objSnapshot, int[] aryFrom, int[] aryTo, double[] aryAmounts, double[] aryResults, int offset, int length) throws InterruptedException
+    {
+        checkBounds(aryFrom, aryTo, aryAmounts, aryResults, offset, length);
+
+        if (length < PARALLEL_THRESHOLD)
+        {
+            convertRange(objSnapshot, aryFrom, aryTo, aryAmounts, aryResults, offset, offset + length);
+        }
+        else
+        {
+            convertParallel(objSnapshot, aryFrom, aryTo, aryAmounts, aryResults, offset, length);
+        }
+    }
+
+    /**
+     * Converts a batch of amounts with the mid rate on the calling thread only
+     *
+     * @param objSnapshot - the rates to convert with
+     * @param aryFrom     - the position of the currency each amount is in
+     * @param aryTo       - the position of the currency each amount is converted to
+     * @param aryAmounts  - the amounts
+     * @param aryResults  - receives the converted amounts, NaN where a position is out of range or
+     *                      the rate is not available
+     * @param offset      - the first index of the batch in every array
+     * @param length      - the number of amounts in the batch
+     */
+    public static void convertSequential(RateSnapshot objSnapshot, int[] aryFrom, int[] aryTo, double[] aryAmounts, double[] aryResults, int offset, int length)
+    {
+        checkBounds(aryFrom, aryTo, aryAmounts, aryResults, offset, length);
+        convertRange(objSnapshot, aryFrom, aryTo, aryAmounts, aryResults, offset, offset + length);
+    }
+
+    // ------------------------------------------------------------------- private methods
+    /**
+     * The inner loop, a single pass over the range with no allocation and no virtual calls
+     *
+     * @param objSnapshot - the rates to convert with
+     * @param aryFrom     - the position of the currency each amount is in
+     * @param aryTo       - the position of the currency each amount is converted to
+     * @param aryAmounts  - the amounts
+     * @param aryResults  - receives the converted amounts
+     * @param start       - the first index of the range
+     * @param end         - one past the last index of the range
+     */
+    private static void convertRange(RateSnapshot objSnapshot, int[] aryFrom, int[] aryTo, double[] aryAmounts, double[] aryResults, int start, int end)
+    {
+        double[] aryRates = objSnapshot.aryRates;
+        int      count    = objSnapshot.intCount;
+
+        for (int i = start; i < end; i++)
+        {
+            int from = aryFrom[i];
+            int to   = aryTo[i];
+
+            // a position outside of the table would otherwise land on some other pair's rate
+            if ((from < 0) || (from >= count) || (to < 0) || (to >= count))
+            {
+                aryResults[i] = Double.NaN;
+            }
+            else
+            {
+                aryResults[i] = aryAmounts[i] * aryRates[(from * count) + to];
+            }
+        }
+    }
+
+    /**
+     * Splits the batch into a range per core and waits for every range to be converted, the
+     * calling thread converts the last range itself
+     *
+     * @param objSnapshot - the rates to convert with
+     * @param aryFrom     - the position of the currency each amount is in
+     * @param aryTo       - the position of the currency each amount is converted to
+     * @param aryAmounts  - the amounts
+     * @param aryResults  - receives the converted amounts
+     * @param offset      - the first index of the batch in every array
+     * @param length      - the number of amounts in the batch
+     * @throws InterruptedException - if interrupted while waiting on the other ranges
+     */
+    private static void convertParallel(final RateSnapshot objSnapshot, final int[] aryFrom, final int[] aryTo, final double[] aryAmounts, final double[] aryResults, int offset, int length) throws InterruptedException
+    {
+        int                  cores    = Runtime.getRuntime().availableProcessors();
+        int                  ranges   = Math.max(1, Math.min(cores, length / MIN_RANGE));
+        int                  size     = (length + ranges - 1) / ranges;
+        final CountDownLatch objLatch = new CountDownLatch(ranges - 1);
+
+        for (int r = 0; r < ranges - 1; r++)
+        {
+            final int start = offset + (r * size);
+            final int end   = start + size;
+
+            getExecutor().execute(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        convertRange(objSnapshot, aryFrom, aryTo, aryAmounts, aryResults, start, end);
+                    }
+                    finally
+                    {
+                        objLatch.countDown();
+                    }
+                }
+            });
+        }
+
+        convertRange(objSnapshot, aryFrom, aryTo, aryAmounts, aryResults, offset + ((ranges - 1) * size), offset + length);
+        objLatch.await();
+    }
+
+    /**
+     * Checks that every array holds the whole batch
+     *
+     * @param aryFrom    - the position of the currency each amount is in
+     * @param aryTo      - the position of the currency each amount is converted to
+     * @param aryAmounts - the amounts
+     * @param aryResults - receives the converted amounts
+     * @param offset     - the first index of the batch in every array
+     * @param length     - the number of amounts in the batch
+     */
+    private static void checkBounds(int[] aryFrom, int[] aryTo, double[] aryAmounts, double[] aryResults, int offset, int length)
+    {
+        int end = offset + length;
+
+        if ((offset < 0) || (length < 0) || (end < 0) || (aryFrom.length < end) || (aryTo.length < end) || (aryAmounts.length < end) || (aryResults.length < end))
+        {
+            throw new IndexOutOfBoundsException("Batch of " + length + " at " + offset + " does not fit every array");
+        }
+    }
+
+    /**
+     * Get the shared pool of daemon threads the ranges of parallel batches run on, building it on
+     * first use
+     *
+     * @return - the pool, one thread per core
+     */
+    private static synchronized ExecutorService getExecutor()
+    {
+        if (objExecutor == null)
+        {
+            objExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory()
+            {
+                private final AtomicInteger intThreads = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable runnable)
+                {
+                    Thread objThread = new Thread(runnable, "BatchConverter-" + intThreads.incrementAndGet());
+                    objThread.setDaemon(true);
+
+                    return objThread;
+                }
+            });
+        }
+
+        return objExecutor;
+    }
+}
@@ -0,0 +1,287 @@
+package ca.michael_cunningham.currencyconverter.rates;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import ca.michael_cunningham.currencyconverter.interfaces.RateProvider;
+
+/**
+ * ChunkedRateProvider
+ * ------------------------
+ *
+ * Splits a request for many pairs into chunks of a bounded size and fetches them concurrently
+ * from another provider, so a large currency universe never turns into one huge, slow query. A
+ * failed chunk is retried on its own, and the chunks that did answer are merged into one builder
+ * even when a chunk keeps failing.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public class ChunkedRateProvider implements RateProvider
+{
+    // ------------------------------------------------------------------- private class constants
+    private static final long RETRY_DELAY_MS = 250;
+    private static final long IDLE_THREAD_MS = 30000;
+
+    // ------------------------------------------------------------------- private global variables
+    private final RateProvider    objDelegate;
+    private final ExecutorService objExecutor;
+    private final int             chunkSize;
+    private final int             maxAttempts;
+    private final AtomicInteger   intRetries;
+    private final AtomicInteger   intFailedChunks;
+
+    // ------------------------------------------------------------------- constructors
+    /**
+     * Constructs a new ChunkedRateProvider object running the chunks on its own bounded pool of
+     * daemon threads, which wind down when idle
+     *
+     * @param objDelegate - the provider each chunk is fetched from
+     * @param chunkSize   - the most pairs asked for in one request
+     * @param parallelism - the most chunks fetched at the same time
+     * @param maxAttempts - the most times a chunk is asked for before it is given up on
+     */
+    public ChunkedRateProvider(RateProvider objDelegate, int chunkSize, int parallelism, int maxAttempts)
+    {
+        this(objDelegate, chunkSize, maxAttempts, newExecutor(parallelism));
+    }
+
+    /**
+     * Constructs a new ChunkedRateProvider object
+     *
+     * @param objDelegate - the provider each chunk is fetched from
+     * @param chunkSize   - the most pairs asked for in one request
+     * @param maxAttempts - the most times a chunk is asked for before it is given up on
+     * @param objExecutor - runs the chunks, its thread count bounds the parallelism
+     */
+    public ChunkedRateProvider(RateProvider objDelegate, int chunkSize, int maxAttempts, ExecutorService objExecutor)
+    {
+        if ((chunkSize <= 0) || (maxAttempts <= 0))
+        {
+            throw new IllegalArgumentException("Chunk size and attempts must be positive");
+        }
+
+        this.objDelegate     = objDelegate;
+        this.chunkSize       = chunkSize;
+        this.maxAttempts     = maxAttempts;
+        this.objExecutor     = objExecutor;
+        this.intRetries      = new AtomicInteger();
+        this.intFailedChunks = new AtomicInteger();
+    }
+
+    // ------------------------------------------------------------------- get methods
+    /**
+     * Get the number of times a chunk was asked for again after it failed
+     *
+     * @return - the retry count
+     */
+    public int getRetryCount()
+    {
+        return intRetries.get();
+    }
+
+    /**
+     * Get the number of chunks given up on after every attempt failed
+     *
+     * @return - the failed chunk count
+     */
+    public int getFailedChunkCount()
+    {
+        return intFailedChunks.get();
+    }
+
+    // ------------------------------------------------------------------- public methods
+    /**
+     * Fetches the pairs chunk by chunk and merges whatever the chunks answered with
+     *
+     * @param aryCurrencies - the currency table the pairs index into
+     * @param aryPairs      - the pairs to fetch, each one (from * currency count + to)
+     * @return              - a builder holding the quotes of every chunk that answered and marking
+     *                        the chunks that had not changed, which may be only some of the
+     *                        pairs, or null if no chunk has changed
+     * @throws IOException  - if every chunk failed, the last chunk's error is thrown
+     */
+    @Override
+    public RateSnapshot.Builder fetch(final String[] aryCurrencies, int[] aryPairs) throws IOException
+    {
+        List<Future<RateSnapshot.Builder>> lstChunks    = new ArrayList<Future<RateSnapshot.Builder>>();
+        List<int[]>                        lstPairs     = new ArrayList<int[]>();
+        RateSnapshot.Builder               objMerged    = null;
+        IOException                        objError     = null;
+        int                                intFailed    = 0;
+        int                                intUnchanged = 0;
+
+        for (int start = 0; start < aryPairs.length; start += chunkSize)
+        {
+            final int[] aryChunk = Arrays.copyOfRange(aryPairs, start, Math.min(aryPairs.length, start + chunkSize));
+
+            lstPairs.add(aryChunk);
+            lstChunks.add(objExecutor.submit(new Callable<RateSnapshot.Builder>()
+            {
+                @Override
+                public RateSnapshot.Builder call() throws Exception
+                {
+                    return fetchChunk(aryCurrencies, aryChunk);
+                }
+            }));
+        }
+
+        try
+        {
+            // merged in submission order, so the result does not depend on which chunk answered first
+            for (int i = 0; i < lstChunks.size(); i++)
+            {
+                try
+                {
+                    RateSnapshot.Builder objBuilder = lstChunks.get(i).get();
+
+                    if (objMerged == null)
+                    {
+                        objMerged = new RateSnapshot.Builder(aryCurrencies);
+                    }
+
+                    if (objBuilder != null)
+                    {
+                        objMerged.putAll(objBuilder);
+                    }
+                    else
+                    {
+                        // the chunk has not changed, its older quotes are as good as fetched now
+                        objMerged.putRevalidated(lstPairs.get(i));
+                        intUnchanged++;
+                    }
+                }
+                catch (ExecutionException e)
+                {
+                    objError = toIOException(e.getCause());
+                    intFailed++;
+                    intFailedChunks.incrementAndGet();
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            for (Future<RateSnapshot.Builder> objChunk : lstChunks)
+            {
+                objChunk.cancel(true);
+            }
+
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while fetching rates");
+        }
+
+        if ((intFailed > 0) && (intFailed == lstChunks.size()))
+        {
+            throw objError;
+        }
+
+        if (intUnchanged == lstChunks.size())
+        {
+            return null;
+        }
+
+        return objMerged;
+    }
+
+    // ------------------------------------------------------------------- private methods
+    /**
+     * Fetches a single chunk, retrying it with a growing delay when it fails
+     *
+     * @param aryCurrencies - the currency table the pairs index into
+     * @param aryChunk      - the pairs of the chunk
+     * @return              - the delegate's answer for the chunk
+     * @throws IOException  - if every attempt failed, the last attempt's error is thrown
+     */
+    private RateSnapshot.Builder fetchChunk(String[] aryCurrencies, int[] aryChunk) throws IOException
+    {
+        for (int attempt = 1; ; attempt++)
+        {
+            try
+            {
+                return objDelegate.fetch(aryCurrencies, aryChunk);
+            }
+            catch (InterruptedIOException e)
+            {
+                throw e;
+            }
+            catch (IOException e)
+            {
+                if (attempt >= maxAttempts)
+                {
+                    throw e;
+                }
+            }
+
+            intRetries.incrementAndGet();
+
+            try
+            {
+                Thread.sleep(RETRY_DELAY_MS * attempt);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while retrying a chunk");
+            }
+        }
+    }
+
+    /**
+     * Builds a fixed size pool of daemon threads that are let go of once they have been idle
+     *
+     * @param parallelism - the thread count
+     * @return            - the pool
+     */
+    private static ExecutorService newExecutor(int parallelism)
+    {
+        ThreadPoolExecutor objExecutor = new ThreadPoolExecutor(parallelism, parallelism, IDLE_THREAD_MS, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+        {
+            private final AtomicInteger intThreads = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                Thread objThread = new Thread(runnable, "RateChunk-" + intThreads.incrementAndGet());
+                objThread.setDaemon(true);
+
+                return objThread;
+            }
+        });
+
+        objExecutor.allowCoreThreadTimeOut(true);
+
+        return objExecutor;
+    }
+
+    /**
+     * Unwraps the failure of a chunk into an IOException
+     *
+     * @param objCause - the failure
+     * @return         - the failure as an IOException
+     */
+    private static IOException toIOException(Throwable objCause)
+    {
+        if (objCause instanceof IOException)
+        {
+            return (IOException) objCause;
+        }
+
+        IOException objError = new IOException(String.valueOf(objCause));
+        objError.initCause(objCause);
+
+        return objError;
+    }
+}
@@ -0,0 +1,249 @@
+package ca.michael_cunningham.currencyconverter.rates;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import ca.michael_cunningham.currencyconverter.interfaces.RateProvider;
+
+/**
+ * CompositeRateProvider
+ * ------------------------
+ *
+ * Puts a secondary provider behind a primary one. When the primary fails, the secondary is asked
+ * instead. When the primary is slower than a percentile of its own recent latencies, the same
+ * request is hedged to the secondary and whichever answers first wins, which cuts the tail of
+ * the refresh latency at the cost of a few duplicate requests.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public class CompositeRateProvider implements RateProvider
+{
+    // ------------------------------------------------------------------- private class constants
+    private static final int  WINDOW_SIZE      = 64;
+    private static final int  MIN_SAMPLES      = 8;
+    private static final long DEFAULT_HEDGE_MS = 2000;
+
+    // ------------------------------------------------------------------- private global variables
+    private final RateProvider    objPrimary;
+    private final RateProvider    objSecondary;
+    private final ExecutorService objExecutor;
+    private final LatencyWindow   objLatencies;
+    private final double          percentile;
+    private final AtomicInteger   intHedges;
+    private final AtomicInteger   intFailovers;
+
+    // ------------------------------------------------------------------- constructors
+    /**
+     * Constructs a new CompositeRateProvider object running requests on its own daemon threads
+     *
+     * @param objPrimary   - the provider asked first
+     * @param objSecondary - the provider hedged or failed over to
+     * @param percentile   - the percentile of the primary's latency after which to hedge, ie. 95
+     */
+    public CompositeRateProvider(RateProvider objPrimary, RateProvider objSecondary, double percentile)
+    {
+        this(objPrimary, objSecondary, percentile, Executors.newCachedThreadPool(new ThreadFactory()
+        {
+            private final AtomicInteger intThreads = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                Thread objThread = new Thread(runnable, "RateProvider-" + intThreads.incrementAndGet());
+                objThread.setDaemon(true);
+
+                return objThread;
+            }
+        }));
+    }
+
+    /**
+     * Constructs a new CompositeRateProvider object
+     *
+     * @param objPrimary   - the provider asked first
+     * @param objSecondary - the provider hedged or failed over to
+     * @param percentile   - the percentile of the primary's latency after which to hedge, ie. 95
+     * @param objExecutor  - runs the requests, it needs at least two threads
+     */
+    public CompositeRateProvider(RateProvider objPrimary, RateProvider objSecondary, double percentile, ExecutorService objExecutor)
+    {
+        this.objPrimary   = objPrimary;
+        this.objSecondary = objSecondary;
+        this.percentile   = percentile;
+        this.objExecutor  = objExecutor;
+        this.objLatencies = new LatencyWindow(WINDOW_SIZE);
+        this.intHedges    = new AtomicInteger();
+        this.intFailovers = new AtomicInteger();
+    }
+
+    // ------------------------------------------------------------------- get methods
+    /**
+     * Get how long the primary gets before the request is hedged, the default is used until
+     * enough of the primary's latencies are known
+     *
+     * @return - the delay in milliseconds
+     */
+    public long getHedgeDelay()
+    {
+        if (objLatencies.getCount() < MIN_SAMPLES)
+        {
+            return DEFAULT_HEDGE_MS;
+        }
+
+        return objLatencies.getPercentile(percentile);
+    }
+
+    /**
+     * Get the number of requests hedged to the secondary because the primary was slow
+     *
+     * @return - the hedge count
+     */
+    public int getHedgeCount()
+    {
+        return intHedges.get();
+    }
+
+    /**
+     * Get the number of requests sent to the secondary because the primary failed
+     *
+     * @return - the failover count
+     */
+    public int getFailoverCount()
+    {
+        return intFailovers.get();
+    }
+
+    // ------------------------------------------------------------------- public methods
+    /**
+     * Fetches from the primary, hedging to or failing over to the secondary as needed
+     *
+     * @param aryCurrencies - the currency table the pairs index into
+     * @param aryPairs      - the pairs to fetch, each one (from * currency count + to)
+     * @return              - the first successful answer
+     * @throws IOException  - if both providers failed, the secondary's error is thrown
+     */
+    @Override
+    public RateSnapshot.Builder fetch(final String[] aryCurrencies, final int[] aryPairs) throws IOException
+    {
+        CompletionService<RateSnapshot.Builder> objCompletion = new ExecutorCompletionService<RateSnapshot.Builder>(objExecutor);
+        Future<RateSnapshot.Builder>            objSecondaryTask = null;
+        IOException                             objLastError     = null;
+        int                                     intPending       = 1;
+
+        objCompletion.submit(new Callable<RateSnapshot.Builder>()
+        {
+            @Override
+            public RateSnapshot.Builder call() throws Exception
+            {
+                long                 start      = System.nanoTime();
+                RateSnapshot.Builder objBuilder = objPrimary.fetch(aryCurrencies, aryPairs);
+
+                // recorded even when the hedge won, otherwise the window would only ever see fast answers
+                objLatencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+                return objBuilder;
+            }
+        });
+
+        Callable<RateSnapshot.Builder> objSecondaryCall = new Callable<RateSnapshot.Builder>()
+        {
+            @Override
+            public RateSnapshot.Builder call() throws Exception
+            {
+                return objSecondary.fetch(aryCurrencies, aryPairs);
+            }
+        };
+
+        try
+        {
+            while (intPending > 0)
+            {
+                Future<RateSnapshot.Builder> objDone;
+
+                if (objSecondaryTask == null)
+                {
+                    objDone = objCompletion.poll(getHedgeDelay(), TimeUnit.MILLISECONDS);
+
+                    if (objDone == null)
+                    {
+                        // the primary is slower than it usually is, ask the secondary as well
+                        objSecondaryTask = objCompletion.submit(objSecondaryCall);
+                        intHedges.incrementAndGet();
+                        intPending++;
+
+                        continue;
+                    }
+                }
+                else
+                {
+                    objDone = objCompletion.take();
+                }
+
+                intPending--;
+
+                try
+                {
+                    return objDone.get();
+                }
+                catch (ExecutionException e)
+                {
+                    objLastError = toIOException(e.getCause());
+
+                    if (objSecondaryTask == null)
+                    {
+                        // the primary failed before it was hedged, fail over to the secondary
+                        objSecondaryTask = objCompletion.submit(objSecondaryCall);
+                        intFailovers.incrementAndGet();
+                        intPending++;
+                    }
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while fetching rates");
+        }
+        finally
+        {
+            // the primary is left to finish so its latency is still recorded
+            if (objSecondaryTask != null)
+            {
+                objSecondaryTask.cancel(true);
+            }
+        }
+
+        throw objLastError;
+    }
+
+    // ------------------------------------------------------------------- private methods
+    /**
+     * Unwraps the failure of a provider into an IOException
+     *
+     * @param objCause - the failure
+     * @return         - the failure as an IOException
+     */
+    private static IOException toIOException(Throwable objCause)
+    {
+        if (objCause instanceof IOException)
+        {
+            return (IOException) objCause;
+        }
+
+        IOException objError = new IOException(String.valueOf(objCause));
+        objError.initCause(objCause);
+
+        return objError;
+    }
+}
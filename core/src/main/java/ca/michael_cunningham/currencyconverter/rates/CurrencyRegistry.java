@@ -0,0 +1,244 @@
+package ca.michael_cunningham.currencyconverter.rates;
+
+/**
+ * CurrencyRegistry
+ * ------------------------
+ *
+ * Gives each ISO 4217 code of a currency table a dense small id, its position in the table, and
+ * every pair a single int key, (from * count + to), the same index RateSnapshot's columns use. A
+ * code is packed into an int from its three letters and found in a small open addressing table,
+ * so looking up a code, or a six letter pair id such as "USDEUR", never builds or compares a String.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public class CurrencyRegistry
+{
+    // ------------------------------------------------------------------- public class constants
+    public static final int NO_ID = -1;
+
+    // ------------------------------------------------------------------- private class constants
+    private static final int CODE_LENGTH = 3;
+    private static final int LETTERS     = 26;
+    private static final int ID_BITS     = 16;
+    private static final int ID_MASK     = (1 << ID_BITS) - 1;
+
+    // ------------------------------------------------------------------- private global variables
+    private final String[] aryCurrencies;
+    private final int      intCount;
+    private final int[]    arySlots;
+    private final int      intMask;
+    private final int      intShift;
+
+    // ------------------------------------------------------------------- constructors
+    /**
+     * Constructs a new CurrencyRegistry object
+     *
+     * @param aryCurrencies - the currency table, each code three letters
+     * @throws IllegalArgumentException - if a code is not three letters, or is in the table twice
+     */
+    public CurrencyRegistry(String[] aryCurrencies)
+    {
+        int count = aryCurrencies.length;
+
+        if (count > ID_MASK)
+        {
+            throw new IllegalArgumentException("Too many currencies " + count);
+        }
+
+        // at most half full, so a probe ends after a slot or two
+        this.aryCurrencies = aryCurrencies.clone();
+        this.intCount      = count;
+        this.arySlots      = new int[Integer.highestOneBit(Math.max(1, count)) * 4];
+        this.intMask       = arySlots.length - 1;
+        this.intShift      = Integer.numberOfLeadingZeros(arySlots.length) + 1;
+
+        for (int id = 0; id < count; id++)
+        {
+            String strCurrency = aryCurrencies[id];
+            int    code        = ((strCurrency == null) || (strCurrency.length() != CODE_LENGTH)) ? NO_ID : pack(strCurrency, 0);
+
+            if (code == NO_ID)
+            {
+                throw new IllegalArgumentException("Not a currency code " + strCurrency);
+            }
+
+            int slot = getSlot(code);
+
+            while (arySlots[slot] != 0)
+            {
+                if ((arySlots[slot] >>> ID_BITS) == (code + 1))
+                {
+                    throw new IllegalArgumentException("Duplicate currency code " + strCurrency);
+                }
+
+                slot = (slot + 1) & intMask;
+            }
+
+            // a slot holds the code plus one over the id, so an empty slot is zero
+            arySlots[slot] = ((code + 1) << ID_BITS) | id;
+        }
+    }
+
+    // ------------------------------------------------------------------- get methods
+    /**
+     * Get the number of currencies in the table
+     *
+     * @return - the currency count
+     */
+    public int getCount()
+    {
+        return intCount;
+    }
+
+    /**
+     * Get the currency code of an id
+     *
+     * @param id - the id
+     * @return   - the currency code
+     */
+    public String getCode(int id)
+    {
+        return aryCurrencies[id];
+    }
+
+    /**
+     * Get the id of a currency code, in any case
+     *
+     * @param strCurrency - the currency code
+     * @return            - the id, or NO_ID if it is not in the table
+     */
+    public int getId(CharSequence strCurrency)
+    {
+        if ((strCurrency == null) || (strCurrency.length() != CODE_LENGTH))
+        {
+            return NO_ID;
+        }
+
+        return find(pack(strCurrency, 0));
+    }
+
+    /**
+     * Get the key of a pair of ids
+     *
+     * @param from - the id of the currency converted from
+     * @param to   - the id of the currency converted to
+     * @return     - the pair key, or RateSnapshot.NO_PAIR if either id is out of range
+     */
+    public int getPair(int from, int to)
+    {
+        if ((from < 0) || (to < 0) || (from >= intCount) || (to >= intCount))
+        {
+            return RateSnapshot.NO_PAIR;
+        }
+
+        return (from * intCount) + to;
+    }
+
+    /**
+     * Get the key of a six letter pair id, ie. "USDEUR"
+     *
+     * @param strPairId - the pair id
+     * @return          - the pair key, or RateSnapshot.NO_PAIR if either code is not in the table
+     */
+    public int getPair(CharSequence strPairId)
+    {
+        if ((strPairId == null) || (strPairId.length() != (CODE_LENGTH * 2)))
+        {
+            return RateSnapshot.NO_PAIR;
+        }
+
+        return getPair(find(pack(strPairId, 0)), find(pack(strPairId, CODE_LENGTH)));
+    }
+
+    /**
+     * Get the id of the currency a pair converts from
+     *
+     * @param pair - the pair key
+     * @return     - the id
+     */
+    public int getFrom(int pair)
+    {
+        return pair / intCount;
+    }
+
+    /**
+     * Get the id of the currency a pair converts to
+     *
+     * @param pair - the pair key
+     * @return     - the id
+     */
+    public int getTo(int pair)
+    {
+        return pair % intCount;
+    }
+
+    // ------------------------------------------------------------------- private methods
+    /**
+     * Get the id of a packed code
+     *
+     * @param code - the packed code, or NO_ID
+     * @return     - the id, or NO_ID if it is not in the table
+     */
+    private int find(int code)
+    {
+        if (code == NO_ID)
+        {
+            return NO_ID;
+        }
+
+        for (int slot = getSlot(code); arySlots[slot] != 0; slot = (slot + 1) & intMask)
+        {
+            if ((arySlots[slot] >>> ID_BITS) == (code + 1))
+            {
+                return arySlots[slot] & ID_MASK;
+            }
+        }
+
+        return NO_ID;
+    }
+
+    /**
+     * Get the slot a packed code is first looked for at, from the top bits of its hash, as many
+     * as the table needs, since those are the ones every bit of the code has mixed into
+     *
+     * @param code - the packed code
+     * @return     - the slot
+     */
+    private int getSlot(int code)
+    {
+        return (code * 0x9E3779B1) >>> intShift;
+    }
+
+    /**
+     * Packs three letters into an int between 0 and 26^3, folding lower case into upper case
+     *
+     * @param strCode - the characters holding the code
+     * @param start   - the position of the first letter
+     * @return        - the packed code, or NO_ID if one of the three is not a letter
+     */
+    private static int pack(CharSequence strCode, int start)
+    {
+        int code = 0;
+
+        for (int i = start; i < (start + CODE_LENGTH); i++)
+        {
+            char letter = strCode.charAt(i);
+
+            if ((letter >= 'a') && (letter <= 'z'))
+            {
+                letter -= 'a' - 'A';
+            }
+
+            if ((letter < 'A') || (letter > 'Z'))
+            {
+                return NO_ID;
+            }
+
+            code = (code * LETTERS) + (letter - 'A');
+        }
+
+        return code;
+    }
+}
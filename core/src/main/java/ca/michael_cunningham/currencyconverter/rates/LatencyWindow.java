@@ -0,0 +1,82 @@
+package ca.michael_cunningham.currencyconverter.rates;
+
+import java.util.Arrays;
+
+/**
+ * LatencyWindow
+ * ------------------------
+ *
+ * A thread safe ring of the most recent latency samples, used to answer percentile questions
+ * about how a provider has been behaving lately
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public class LatencyWindow
+{
+    // ------------------------------------------------------------------- private global variables
+    private final long[] arySamples;
+    private int          intNext;
+    private int          intCount;
+
+    // ------------------------------------------------------------------- constructors
+    /**
+     * Constructs a new LatencyWindow object
+     *
+     * @param size - the number of most recent samples to keep
+     */
+    public LatencyWindow(int size)
+    {
+        this.arySamples = new long[size];
+    }
+
+    // ------------------------------------------------------------------- get methods
+    /**
+     * Get the number of samples currently in the window
+     *
+     * @return - the sample count
+     */
+    public synchronized int getCount()
+    {
+        return intCount;
+    }
+
+    /**
+     * Get a percentile of the samples in the window
+     *
+     * @param percentile - the percentile, between 0 and 100
+     * @return           - the sample at that percentile, or -1 if the window is empty
+     */
+    public synchronized long getPercentile(double percentile)
+    {
+        if (intCount == 0)
+        {
+            return -1;
+        }
+
+        long[] arySorted = Arrays.copyOf(arySamples, intCount);
+        Arrays.sort(arySorted);
+
+        int index = (int) Math.ceil((percentile / 100) * intCount) - 1;
+
+        return arySorted[Math.max(0, Math.min(intCount - 1, index))];
+    }
+
+    // ------------------------------------------------------------------- public methods
+    /**
+     * Adds a sample, replacing the oldest one once the window is full
+     *
+     * @param latency - the sample
+     */
+    public synchronized void add(long latency)
+    {
+        arySamples[intNext] = latency;
+        intNext = (intNext + 1) % arySamples.length;
+
+        if (intCount < arySamples.length)
+        {
+            intCount++;
+        }
+    }
+}
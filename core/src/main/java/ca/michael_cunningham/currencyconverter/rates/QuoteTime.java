@@ -0,0 +1,148 @@
+package ca.michael_cunningham.currencyconverter.rates;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * QuoteTime
+ * ------------------------
+ *
+ * An abstract Java class used for converting the date and time strings of a quote to and from
+ * epoch milliseconds, so the rate snapshot can hold them as primitives.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public abstract class QuoteTime
+{
+    // ------------------------------------------------------------------- public class constants
+    public static final long UNKNOWN = Long.MIN_VALUE;
+
+    // ------------------------------------------------------------------- private class constants
+    private static final String PATTERN_QUOTE   = "M/d/yyyy h:mma";
+    private static final String PATTERN_DATE    = "M/d/yyyy";
+    private static final String PATTERN_TIME    = "h:mma";
+    private static final String PATTERN_CREATED = "yyyy-MM-dd'T'HH:mm:ss'Z'";
+
+    /**
+     * Parses the separate date and time values of a quote, ie. "12/2/2014" and "9:47pm"
+     *
+     * @param strDate - the date value of the quote
+     * @param strTime - the time value of the quote
+     * @return        - the epoch milliseconds, or UNKNOWN if it could not be parsed
+     */
+    public static long parseQuote(String strDate, String strTime)
+    {
+        if ((strDate == null) || (strTime == null))
+        {
+            return UNKNOWN;
+        }
+
+        return parse(PATTERN_QUOTE, strDate + " " + strTime);
+    }
+
+    /**
+     * Parses the created value of a query, ie. "2014-12-03T02:47:16Z"
+     *
+     * @param strCreated - the created value of the query
+     * @return           - the epoch milliseconds, or UNKNOWN if it could not be parsed
+     */
+    public static long parseCreated(String strCreated)
+    {
+        return parse(PATTERN_CREATED, strCreated);
+    }
+
+    /**
+     * Formats the date portion of a quote time, ie. "12/2/2014"
+     *
+     * @param time - the epoch milliseconds
+     * @return     - the formatted date, or null if the time is unknown
+     */
+    public static String formatDate(long time)
+    {
+        return format(PATTERN_DATE, time);
+    }
+
+    /**
+     * Formats the time portion of a quote time, ie. "9:47pm"
+     *
+     * @param time - the epoch milliseconds
+     * @return     - the formatted time, or null if the time is unknown
+     */
+    public static String formatTime(long time)
+    {
+        String strTime = format(PATTERN_TIME, time);
+
+        return (strTime == null) ? null : strTime.toLowerCase(Locale.US);
+    }
+
+    /**
+     * Formats a query created time, ie. "2014-12-03T02:47:16Z"
+     *
+     * @param time - the epoch milliseconds
+     * @return     - the formatted time, or null if the time is unknown
+     */
+    public static String formatCreated(long time)
+    {
+        return format(PATTERN_CREATED, time);
+    }
+
+    // ------------------------------------------------------------------- private methods
+    /**
+     * Parses a value with the given pattern in UTC
+     *
+     * @param strPattern - the SimpleDateFormat pattern
+     * @param strValue   - the value to parse
+     * @return           - the epoch milliseconds, or UNKNOWN if it could not be parsed
+     */
+    private static long parse(String strPattern, String strValue)
+    {
+        if (strValue == null)
+        {
+            return UNKNOWN;
+        }
+
+        try
+        {
+            return getFormat(strPattern).parse(strValue).getTime();
+        }
+        catch (ParseException e)
+        {
+            return UNKNOWN;
+        }
+    }
+
+    /**
+     * Formats epoch milliseconds with the given pattern in UTC
+     *
+     * @param strPattern - the SimpleDateFormat pattern
+     * @param time       - the epoch milliseconds
+     * @return           - the formatted value, or null if the time is unknown
+     */
+    private static String format(String strPattern, long time)
+    {
+        if (time == UNKNOWN)
+        {
+            return null;
+        }
+
+        return getFormat(strPattern).format(time);
+    }
+
+    /**
+     * SimpleDateFormat is not thread safe, so a new one is built for every call
+     *
+     * @param strPattern - the SimpleDateFormat pattern
+     * @return           - a new UTC date format
+     */
+    private static SimpleDateFormat getFormat(String strPattern)
+    {
+        SimpleDateFormat objFormat = new SimpleDateFormat(strPattern, Locale.US);
+        objFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        return objFormat;
+    }
+}
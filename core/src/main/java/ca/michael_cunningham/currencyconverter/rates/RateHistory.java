@@ -0,0 +1,701 @@
+package ca.michael_cunningham.currencyconverter.rates;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * RateHistory
+ * ------------------------
+ *
+ * An append-only, memory-mapped time series of every refreshed snapshot. Each refresh appends a
+ * group of fixed-size records for only the pairs whose rate changed, and every so often a keyframe
+ * group holding every pair, so the rate of a pair at any time is found by a binary search on time
+ * and a short walk back that never passes a keyframe. Once the file outgrows its budget it is
+ * rewritten to a quarter under it, so a compaction is paid for once in a while rather than on every
+ * append. History older than the retention window is collapsed to one group per day and its oldest
+ * days dropped first, then the window itself is thinned to coarser groups, then its oldest days are
+ * dropped too, stopping at the first of these that fits.
+ *
+ * Layout (little-endian):
+ *
+ *   header    magic int, version short, reserved short, count int, groups since keyframe int,
+ *             record count long, reserved long
+ *   currency  count * 4 bytes, ASCII code padded with zeros, padded to a multiple of 8
+ *   records   time long, pair int, flags int, rate double, quote time long, in time order
+ *
+ * The record count in the header is written after the records it counts, so a torn append is
+ * simply not there on the next open.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public class RateHistory
+{
+    // ------------------------------------------------------------------- public class constants
+    public static final int   MAGIC   = 0x48524343; // "CCRH" in little-endian
+    public static final short VERSION = 1;
+
+    // ------------------------------------------------------------------- private class constants
+    private static final int    HEADER_SIZE       = 32;
+    private static final int    CURRENCY_SIZE     = 4;
+    private static final int    RECORD_SIZE       = 32;
+    private static final int    FLAG_KEYFRAME     = 1;
+    private static final int    KEYFRAME_INTERVAL = 64;
+    private static final int    INITIAL_CAPACITY  = 64 * 1024;
+    private static final int    LOW_WATER_PERCENT = 75;
+    private static final long   DAY_MS            = 24 * 60 * 60 * 1000L;
+    private static final long[] THIN_WIDTHS       = { 15 * 60 * 1000L, 60 * 60 * 1000L, 6 * 60 * 60 * 1000L, DAY_MS };
+
+    // ------------------------------------------------------------------- private global variables
+    private final File             objFile;
+    private final String[]         aryCurrencies;
+    private final int              intCount;
+    private final int              intDataStart;
+    private final long             lngMaxBytes;
+    private final long             lngRetention;
+    private final double[]         aryLastRates;
+    private RandomAccessFile       objRandomAccess;
+    private MappedByteBuffer       objMap;
+    private long                   lngRecords;
+    private int                    intSinceKeyframe;
+    private long                   lngLastTime;
+
+    // ------------------------------------------------------------------- constructors
+    /**
+     * Constructs a new RateHistory object, open() must be called before it is used
+     *
+     * @param objFile       - the file the history lives in
+     * @param aryCurrencies - the currency table, a file over a different table is started over
+     * @param lngMaxBytes   - the size past which the history is compacted, to three quarters of it
+     * @param lngRetention  - how long history is kept at full resolution, in milliseconds
+     */
+    public RateHistory(File objFile, String[] aryCurrencies, long lngMaxBytes, long lngRetention)
+    {
+        this.objFile       = objFile;
+        this.aryCurrencies = aryCurrencies.clone();
+        this.intCount      = aryCurrencies.length;
+        this.intDataStart  = HEADER_SIZE + (((intCount * CURRENCY_SIZE) + 7) & ~7);
+        this.lngMaxBytes   = lngMaxBytes;
+        this.lngRetention  = lngRetention;
+        this.aryLastRates  = new double[intCount * intCount];
+    }
+
+    // ------------------------------------------------------------------- get methods
+    /**
+     * Get the number of records in the history
+     *
+     * @return - the record count
+     */
+    public synchronized long getRecordCount()
+    {
+        return lngRecords;
+    }
+
+    /**
+     * Get the number of bytes the records take up on the disk
+     *
+     * @return - the size in bytes
+     */
+    public synchronized long getSize()
+    {
+        return getSize(lngRecords);
+    }
+
+    /**
+     * Get the rate a pair had at a point in time, found in logarithmic time
+     *
+     * @param pair - the pair index
+     * @param time - epoch milliseconds
+     * @return     - the last rate recorded at or before the time, or NaN if there is none
+     */
+    public synchronized double getRateAt(int pair, long time)
+    {
+        if ((pair < 0) || (pair >= aryLastRates.length))
+        {
+            return Double.NaN;
+        }
+
+        if ((pair / intCount) == (pair % intCount))
+        {
+            return 1;
+        }
+
+        // the walk back always ends at the latest keyframe, which holds every pair
+        for (long i = getUpperBound(time) - 1; i >= 0; i--)
+        {
+            if (getPair(i) == pair)
+            {
+                return getRate(i);
+            }
+        }
+
+        return Double.NaN;
+    }
+
+    /**
+     * Get the series of rates a pair went through between two points in time, the first point is
+     * the rate the pair had at the start of the range
+     *
+     * @param pair     - the pair index
+     * @param from     - epoch milliseconds the range starts at
+     * @param to       - epoch milliseconds the range ends at, inclusive
+     * @param aryTimes - receives the time of each point
+     * @param aryRates - receives the rate of each point
+     * @return         - the number of points written, at most the length of the arrays
+     */
+    public synchronized int getSeries(int pair, long from, long to, long[] aryTimes, double[] aryRates)
+    {
+        int    capacity = Math.min(aryTimes.length, aryRates.length);
+        int    points   = 0;
+        double start    = getRateAt(pair, from);
+
+        if (!Double.isNaN(start) && (capacity > 0))
+        {
+            aryTimes[0] = from;
+            aryRates[0] = start;
+            points      = 1;
+        }
+
+        for (long i = getUpperBound(from); (i < lngRecords) && (points < capacity); i++)
+        {
+            long time = getTime(i);
+
+            if (time > to)
+            {
+                break;
+            }
+
+            // a keyframe repeats rates that have not changed, those are not a new point
+            if ((getPair(i) == pair) && ((points == 0) || (Double.compare(aryRates[points - 1], getRate(i)) != 0)))
+            {
+                aryTimes[points] = time;
+                aryRates[points] = getRate(i);
+                points++;
+            }
+        }
+
+        return points;
+    }
+
+    // ------------------------------------------------------------------- public methods
+    /**
+     * Opens and maps the history file, starting it over if it is missing, corrupt or over a
+     * different currency table
+     *
+     * @throws IOException - if the file could not be opened
+     */
+    public synchronized void open() throws IOException
+    {
+        objRandomAccess = new RandomAccessFile(objFile, "rw");
+
+        long length = objRandomAccess.length();
+
+        map(Math.max(INITIAL_CAPACITY, length));
+
+        if (!isValid(length))
+        {
+            lngRecords       = 0;
+            intSinceKeyframe = 0;
+
+            writeHeader(objMap);
+            commit();
+        }
+
+        replay();
+    }
+
+    /**
+     * Closes the history file
+     */
+    public synchronized void close()
+    {
+        try
+        {
+            if (objRandomAccess != null)
+            {
+                objRandomAccess.close();
+            }
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+        }
+
+        objRandomAccess = null;
+        objMap          = null;
+    }
+
+    /**
+     * Appends the rates of a snapshot that changed since the last append, compacting the history
+     * if it has outgrown its budget
+     *
+     * @param objSnapshot - the snapshot, over the same currency table
+     * @param time        - epoch milliseconds the snapshot was taken at
+     * @return            - true/false if any record was appended
+     * @throws IOException - if the history could not be grown or compacted
+     */
+    public synchronized boolean append(RateSnapshot objSnapshot, long time) throws IOException
+    {
+        if (!Arrays.equals(aryCurrencies, objSnapshot.aryCurrencies))
+        {
+            return false;
+        }
+
+        // the index is only sorted if time never goes backwards
+        time = Math.max(time, lngLastTime);
+
+        boolean isKeyframe = (lngRecords == 0) || (intSinceKeyframe >= KEYFRAME_INTERVAL);
+        int     changed    = 0;
+
+        for (int pair = 0; pair < aryLastRates.length; pair++)
+        {
+            if (isRecorded(pair, isKeyframe, objSnapshot.aryRates[pair], aryLastRates[pair]))
+            {
+                changed++;
+            }
+        }
+
+        if (changed == 0)
+        {
+            return false;
+        }
+
+        ensureCapacity(lngRecords + changed);
+
+        for (int pair = 0; pair < aryLastRates.length; pair++)
+        {
+            if (isRecorded(pair, isKeyframe, objSnapshot.aryRates[pair], aryLastRates[pair]))
+            {
+                putRecord(objMap, intDataStart + (lngRecords * RECORD_SIZE), time, pair, isKeyframe, objSnapshot.aryRates[pair], objSnapshot.aryQuoteTimes[pair]);
+                aryLastRates[pair] = objSnapshot.aryRates[pair];
+                lngRecords++;
+            }
+        }
+
+        intSinceKeyframe = isKeyframe ? 0 : (intSinceKeyframe + 1);
+        lngLastTime      = time;
+
+        commit();
+
+        if (getSize() > lngMaxBytes)
+        {
+            compact(time);
+        }
+
+        return true;
+    }
+
+    /**
+     * Rewrites the history to three quarters of its budget, collapsing everything older than the
+     * retention window to one group of changes per day, then dropping and thinning groups from
+     * the oldest on until it fits, and renewing the keyframes
+     *
+     * @param now - epoch milliseconds the retention window ends at
+     * @throws IOException - if the compacted history could not be written
+     */
+    public synchronized void compact(long now) throws IOException
+    {
+        long cutoff = now - lngRetention;
+        long target = (lngMaxBytes / 100) * LOW_WATER_PERCENT;
+        long last   = (lngRecords == 0) ? 0 : getTime(lngRecords - 1);
+        long floor  = (lngRecords == 0) ? 0 : getTime(0);
+        long width  = 0;
+
+        // every step is tried as a dry run, only the one that fits is written
+        while ((getSize(build(null, cutoff, width, floor)) > target) && (floor < cutoff))
+        {
+            floor = Math.min(cutoff, getNextDay(floor));
+        }
+
+        for (int level = 0; (level < THIN_WIDTHS.length) && (getSize(build(null, cutoff, width, floor)) > target); level++)
+        {
+            width = THIN_WIDTHS[level];
+        }
+
+        // the latest group is always kept, whatever the budget
+        while ((getSize(build(null, cutoff, width, floor)) > target) && (floor < last))
+        {
+            floor = Math.min(last, getNextDay(floor));
+        }
+
+        ByteBuffer objOutput = ByteBuffer.allocate((int) getSize(build(null, cutoff, width, floor))).order(ByteOrder.LITTLE_ENDIAN);
+
+        build(objOutput, cutoff, width, floor);
+        writeHeader(objOutput);
+        objOutput.position(0);
+
+        // written next to the live file and renamed over it, so a crash leaves one or the other
+        File             objTemp   = new File(objFile.getPath() + ".tmp");
+        FileOutputStream outStream = new FileOutputStream(objTemp);
+
+        try
+        {
+            FileChannel objChannel = outStream.getChannel();
+
+            while (objOutput.hasRemaining())
+            {
+                objChannel.write(objOutput);
+            }
+
+            objChannel.force(true);
+        }
+        finally
+        {
+            outStream.close();
+        }
+
+        close();
+
+        if (!objTemp.renameTo(objFile))
+        {
+            throw new IOException("Could not replace " + objFile);
+        }
+
+        open();
+    }
+
+    // ------------------------------------------------------------------- private methods
+    /**
+     * Regroups the records, counting them only or writing them out, along with the new counts
+     *
+     * @param objOutput - the buffer to write the records to, or null to only count them
+     * @param cutoff    - epoch milliseconds before which records are grouped by day
+     * @param width     - the width of the groups from the cutoff on, in milliseconds, 0 to keep them as they are
+     * @param floor     - epoch milliseconds before which records are dropped, their rates carried into the first group
+     * @return          - the number of records
+     */
+    private long build(ByteBuffer objOutput, long cutoff, long width, long floor)
+    {
+        double[] aryState  = new double[aryLastRates.length];
+        long[]   aryQuotes = new long[aryLastRates.length];
+        double[] aryKept   = new double[aryLastRates.length];
+        long     records   = 0;
+        int      since     = 0;
+        long     i         = 0;
+
+        Arrays.fill(aryState, Double.NaN);
+        Arrays.fill(aryKept, Double.NaN);
+
+        while (i < lngRecords)
+        {
+            long groupTime = getTime(i);
+            long bucket    = getBucket(groupTime, cutoff, width);
+
+            // a group runs to the end of its bucket, everything below the floor is one bucket
+            while ((i < lngRecords) && ((getTime(i) < floor) || (getBucket(getTime(i), cutoff, width) == bucket)))
+            {
+                aryState[getPair(i)]  = getRate(i);
+                aryQuotes[getPair(i)] = getQuoteTime(i);
+                groupTime             = getTime(i);
+                i++;
+            }
+
+            if (groupTime < floor)
+            {
+                continue;
+            }
+
+            boolean isKeyframe = (records == 0) || (since >= KEYFRAME_INTERVAL);
+            long    start      = records;
+
+            for (int pair = 0; pair < aryState.length; pair++)
+            {
+                if (isRecorded(pair, isKeyframe, aryState[pair], aryKept[pair]))
+                {
+                    if (objOutput != null)
+                    {
+                        putRecord(objOutput, intDataStart + (records * RECORD_SIZE), groupTime, pair, isKeyframe, aryState[pair], aryQuotes[pair]);
+                    }
+
+                    aryKept[pair] = aryState[pair];
+                    records++;
+                }
+            }
+
+            if (records > start)
+            {
+                since = isKeyframe ? 0 : (since + 1);
+            }
+        }
+
+        if (objOutput != null)
+        {
+            lngRecords       = records;
+            intSinceKeyframe = since;
+        }
+
+        return records;
+    }
+
+    /**
+     * Get the bucket a record is grouped into when compacting
+     *
+     * @param time   - epoch milliseconds of the record
+     * @param cutoff - epoch milliseconds before which records are grouped by day
+     * @param width  - the width of the groups from the cutoff on, in milliseconds, 0 to keep them as they are
+     * @return       - the bucket, days before the cutoff are negative so they never meet one after it
+     */
+    private static long getBucket(long time, long cutoff, long width)
+    {
+        if (time < cutoff)
+        {
+            return -1 - (time / DAY_MS);
+        }
+
+        return (width == 0) ? time : (time / width);
+    }
+
+    /**
+     * Get the start of the day after the one a point in time falls on
+     *
+     * @param time - epoch milliseconds
+     * @return     - epoch milliseconds of the next midnight, UTC
+     */
+    private static long getNextDay(long time)
+    {
+        return ((time / DAY_MS) + 1) * DAY_MS;
+    }
+
+    /**
+     * Get the number of bytes a number of records takes up on the disk
+     *
+     * @param records - the record count
+     * @return        - the size in bytes
+     */
+    private long getSize(long records)
+    {
+        return intDataStart + (records * RECORD_SIZE);
+    }
+
+    /**
+     * Get whether a pair goes into a group
+     *
+     * @param pair       - the pair index
+     * @param isKeyframe - true/false if the group is a keyframe
+     * @param rate       - the pair's rate now
+     * @param last       - the pair's rate as last recorded
+     * @return           - true/false if the pair is recorded
+     */
+    private boolean isRecorded(int pair, boolean isKeyframe, double rate, double last)
+    {
+        if ((pair / intCount) == (pair % intCount))
+        {
+            return false;
+        }
+
+        return isKeyframe || (Double.compare(rate, last) != 0);
+    }
+
+    /**
+     * Get the index of the first record after a point in time, by binary search
+     *
+     * @param time - epoch milliseconds
+     * @return     - the record index, or the record count if every record is at or before the time
+     */
+    private long getUpperBound(long time)
+    {
+        long low  = 0;
+        long high = lngRecords;
+
+        while (low < high)
+        {
+            long middle = (low + high) >>> 1;
+
+            if (getTime(middle) <= time)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Rebuilds the last recorded rate of every pair, starting from the latest keyframe
+     */
+    private void replay()
+    {
+        long start = lngRecords;
+
+        Arrays.fill(aryLastRates, Double.NaN);
+
+        // find the first record of the latest keyframe group
+        while ((start > 0) && !isKeyframe(start - 1))
+        {
+            start--;
+        }
+
+        long keyframeTime = (start > 0) ? getTime(start - 1) : 0;
+
+        while ((start > 0) && isKeyframe(start - 1) && (getTime(start - 1) == keyframeTime))
+        {
+            start--;
+        }
+
+        for (long i = start; i < lngRecords; i++)
+        {
+            aryLastRates[getPair(i)] = getRate(i);
+        }
+
+        lngLastTime = (lngRecords == 0) ? 0 : getTime(lngRecords - 1);
+    }
+
+    /**
+     * Get whether the mapped file is a history over this currency table
+     *
+     * @param length - the length of the file
+     * @return       - true/false if the file can be used
+     */
+    private boolean isValid(long length)
+    {
+        if ((length < intDataStart) || (objMap.getInt(0) != MAGIC) || (objMap.getShort(4) != VERSION) || (objMap.getInt(8) != intCount))
+        {
+            return false;
+        }
+
+        for (int i = 0; i < intCount; i++)
+        {
+            for (int x = 0; x < CURRENCY_SIZE; x++)
+            {
+                byte expected = (x < aryCurrencies[i].length()) ? (byte) aryCurrencies[i].charAt(x) : 0;
+
+                if (objMap.get(HEADER_SIZE + (i * CURRENCY_SIZE) + x) != expected)
+                {
+                    return false;
+                }
+            }
+        }
+
+        lngRecords       = objMap.getLong(16);
+        intSinceKeyframe = objMap.getInt(12);
+
+        return (lngRecords >= 0) && ((intDataStart + (lngRecords * RECORD_SIZE)) <= length);
+    }
+
+    /**
+     * Writes the header and currency table
+     *
+     * @param objBuffer - the buffer to write them to, at its start
+     */
+    private void writeHeader(ByteBuffer objBuffer)
+    {
+        objBuffer.putInt(0, MAGIC);
+        objBuffer.putShort(4, VERSION);
+        objBuffer.putShort(6, (short) 0);
+        objBuffer.putInt(8, intCount);
+        objBuffer.putInt(12, intSinceKeyframe);
+        objBuffer.putLong(16, lngRecords);
+        objBuffer.putLong(24, 0);
+
+        for (int i = 0; i < intCount; i++)
+        {
+            for (int x = 0; x < CURRENCY_SIZE; x++)
+            {
+                objBuffer.put(HEADER_SIZE + (i * CURRENCY_SIZE) + x, (x < aryCurrencies[i].length()) ? (byte) aryCurrencies[i].charAt(x) : 0);
+            }
+        }
+    }
+
+    /**
+     * Publishes the records appended so far by writing their count, then flushes the mapping
+     */
+    private void commit()
+    {
+        objMap.putInt(12, intSinceKeyframe);
+        objMap.putLong(16, lngRecords);
+        objMap.force();
+    }
+
+    /**
+     * Writes a single record
+     *
+     * @param objBuffer  - the buffer to write to
+     * @param offset     - the offset of the record
+     * @param time       - epoch milliseconds of the group
+     * @param pair       - the pair index
+     * @param isKeyframe - true/false if the record belongs to a keyframe
+     * @param rate       - the rate
+     * @param quoteTime  - the quote time of the rate
+     */
+    private static void putRecord(ByteBuffer objBuffer, long offset, long time, int pair, boolean isKeyframe, double rate, long quoteTime)
+    {
+        int position = (int) offset;
+
+        objBuffer.putLong(position, time);
+        objBuffer.putInt(position + 8, pair);
+        objBuffer.putInt(position + 12, isKeyframe ? FLAG_KEYFRAME : 0);
+        objBuffer.putDouble(position + 16, rate);
+        objBuffer.putLong(position + 24, quoteTime);
+    }
+
+    /**
+     * Grows the mapping, doubling it, until it holds the given number of records
+     *
+     * @param records - the record count to make room for
+     * @throws IOException - if the file could not be grown
+     */
+    private void ensureCapacity(long records) throws IOException
+    {
+        long needed   = intDataStart + (records * RECORD_SIZE);
+        long capacity = objMap.capacity();
+
+        if (needed > capacity)
+        {
+            while (capacity < needed)
+            {
+                capacity *= 2;
+            }
+
+            map(capacity);
+        }
+    }
+
+    /**
+     * Maps the file, growing it to the given size if it is smaller
+     *
+     * @param size - the size to map
+     * @throws IOException - if the file could not be mapped
+     */
+    private void map(long size) throws IOException
+    {
+        objMap = objRandomAccess.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        objMap.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private long getTime(long index)
+    {
+        return objMap.getLong((int) (intDataStart + (index * RECORD_SIZE)));
+    }
+
+    private int getPair(long index)
+    {
+        return objMap.getInt((int) (intDataStart + (index * RECORD_SIZE) + 8));
+    }
+
+    private boolean isKeyframe(long index)
+    {
+        return (objMap.getInt((int) (intDataStart + (index * RECORD_SIZE) + 12)) & FLAG_KEYFRAME) != 0;
+    }
+
+    private double getRate(long index)
+    {
+        return objMap.getDouble((int) (intDataStart + (index * RECORD_SIZE) + 16));
+    }
+
+    private long getQuoteTime(long index)
+    {
+        return objMap.getLong((int) (intDataStart + (index * RECORD_SIZE) + 24));
+    }
+}
@@ -0,0 +1,544 @@
+package ca.michael_cunningham.currencyconverter.rates;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * RateSnapshot
+ * ------------------------
+ *
+ * The rates of one refresh, pre-indexed into flat primitive matrices. A pair is addressed by
+ * (from * count + to), where from and to are positions in the currency table, so reading a rate
+ * is a single array access with no parsing or allocation.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public class RateSnapshot
+{
+    // ------------------------------------------------------------------- public class constants
+    public static final int NO_PAIR = -1;
+
+    // ------------------------------------------------------------------- package global variables
+    /* the columns are package-private so SnapshotCodec can bulk copy them */
+    final String[] aryCurrencies;
+    final int      intCount;
+    final double[] aryRates;
+    final double[] aryAsks;
+    final double[] aryBids;
+    final long[]   aryQuoteTimes;
+    final long[]   aryFetchedAt;
+    final long     lngCreated;
+
+    // ------------------------------------------------------------------- constructors
+    /**
+     * Constructs a new RateSnapshot object, only used by the builder
+     *
+     * @param objBuilder - the builder holding the parsed values
+     */
+    private RateSnapshot(Builder objBuilder)
+    {
+        this.aryCurrencies = objBuilder.aryCurrencies;
+        this.intCount      = objBuilder.aryCurrencies.length;
+        this.aryRates      = objBuilder.aryRates;
+        this.aryAsks       = objBuilder.aryAsks;
+        this.aryBids       = objBuilder.aryBids;
+        this.aryQuoteTimes = objBuilder.aryQuoteTimes;
+        this.aryFetchedAt  = objBuilder.aryFetchedAt;
+        this.lngCreated    = objBuilder.lngCreated;
+    }
+
+    /**
+     * Constructs a new RateSnapshot object around already decoded columns, only used by SnapshotCodec
+     *
+     * @param aryCurrencies - the currency table
+     * @param aryRates      - the rate column
+     * @param aryAsks       - the ask column
+     * @param aryBids       - the bid column
+     * @param aryQuoteTimes - the quote time column
+     * @param aryFetchedAt  - the fetched at column
+     * @param lngCreated    - the time the provider created the response at
+     */
+    RateSnapshot(String[] aryCurrencies, double[] aryRates, double[] aryAsks, double[] aryBids, long[] aryQuoteTimes, long[] aryFetchedAt, long lngCreated)
+    {
+        this.aryCurrencies = aryCurrencies;
+        this.intCount      = aryCurrencies.length;
+        this.aryRates      = aryRates;
+        this.aryAsks       = aryAsks;
+        this.aryBids       = aryBids;
+        this.aryQuoteTimes = aryQuoteTimes;
+        this.aryFetchedAt  = aryFetchedAt;
+        this.lngCreated    = lngCreated;
+    }
+
+    // ------------------------------------------------------------------- get methods
+    /**
+     * Get the number of currencies in the snapshot
+     *
+     * @return - the currency count
+     */
+    public int getCount()
+    {
+        return intCount;
+    }
+
+    /**
+     * Get the currency code at the given position
+     *
+     * @param index - the position in the currency table
+     * @return      - the currency code
+     */
+    public String getCurrency(int index)
+    {
+        return aryCurrencies[index];
+    }
+
+    /**
+     * Get the pair index of two currency positions
+     *
+     * @param from - the position of the currency converted from
+     * @param to   - the position of the currency converted to
+     * @return     - the pair index, or NO_PAIR if either position is out of range
+     */
+    public int getPair(int from, int to)
+    {
+        if ((from < 0) || (to < 0) || (from >= intCount) || (to >= intCount))
+        {
+            return NO_PAIR;
+        }
+
+        return (from * intCount) + to;
+    }
+
+    /**
+     * Get the rate of a pair
+     *
+     * @param pair - the pair index
+     * @return     - the rate, or NaN if it is not available
+     */
+    public double getRate(int pair)
+    {
+        return aryRates[pair];
+    }
+
+    /**
+     * Get the ask of a pair
+     *
+     * @param pair - the pair index
+     * @return     - the ask, or NaN if it is not available
+     */
+    public double getAsk(int pair)
+    {
+        return aryAsks[pair];
+    }
+
+    /**
+     * Get the bid of a pair
+     *
+     * @param pair - the pair index
+     * @return     - the bid, or NaN if it is not available
+     */
+    public double getBid(int pair)
+    {
+        return aryBids[pair];
+    }
+
+    /**
+     * Get the time the provider quoted the pair at
+     *
+     * @param pair - the pair index
+     * @return     - epoch milliseconds, or QuoteTime.UNKNOWN
+     */
+    public long getQuoteTime(int pair)
+    {
+        return aryQuoteTimes[pair];
+    }
+
+    /**
+     * Get the time the pair was last fetched directly from a provider
+     *
+     * @param pair - the pair index
+     * @return     - epoch milliseconds, or QuoteTime.UNKNOWN if the pair is crossed or an identity
+     */
+    public long getFetchedAt(int pair)
+    {
+        return aryFetchedAt[pair];
+    }
+
+    /**
+     * Get the time a pair should be fetched again by. A direct quote lives for the given time to
+     * live from when it was fetched, a crossed pair expires along with the first of its two legs.
+     *
+     * @param pair  - the pair index
+     * @param pivot - the position of the currency crossed pairs were computed through
+     * @param ttl   - how long a direct quote stays fresh for, in milliseconds
+     * @return      - epoch milliseconds, QuoteTime.UNKNOWN if it was never fetched, or
+     *                Long.MAX_VALUE for an identity pair
+     */
+    public long getExpiresAt(int pair, int pivot, long ttl)
+    {
+        int from = pair / intCount;
+        int to   = pair % intCount;
+
+        if (from == to)
+        {
+            return Long.MAX_VALUE;
+        }
+
+        if (aryFetchedAt[pair] != QuoteTime.UNKNOWN)
+        {
+            return aryFetchedAt[pair] + ttl;
+        }
+
+        if ((from == pivot) || (to == pivot))
+        {
+            return QuoteTime.UNKNOWN;
+        }
+
+        return Math.min(getExpiresAt((pivot * intCount) + from, pivot, ttl), getExpiresAt((pivot * intCount) + to, pivot, ttl));
+    }
+
+    /**
+     * Get the time the provider created the response at
+     *
+     * @return - epoch milliseconds, or QuoteTime.UNKNOWN
+     */
+    public long getCreated()
+    {
+        return lngCreated;
+    }
+
+    /**
+     * Get how far the rates have moved since an earlier snapshot, as the mean relative change of
+     * the given pairs
+     *
+     * @param objEarlier - the earlier snapshot, over the same currency table
+     * @param aryPairs   - the pairs to compare
+     * @return           - the mean of |rate / earlier rate - 1|, or 0 if no pair has both rates
+     */
+    public double getMove(RateSnapshot objEarlier, int[] aryPairs)
+    {
+        double total    = 0;
+        int    compared = 0;
+
+        for (int pair : aryPairs)
+        {
+            double earlier = objEarlier.aryRates[pair];
+            double rate    = aryRates[pair];
+
+            if (!Double.isNaN(earlier) && !Double.isNaN(rate) && (earlier != 0))
+            {
+                total += Math.abs((rate / earlier) - 1);
+                compared++;
+            }
+        }
+
+        return (compared == 0) ? 0 : (total / compared);
+    }
+
+    // ------------------------------------------------------------------- public methods
+    /**
+     * Formats a rate, ask or bid value for display
+     *
+     * @param value - the value to format
+     * @return      - the formatted value, "N/A" if it is not available
+     */
+    public static String format(double value)
+    {
+        if (Double.isNaN(value))
+        {
+            return "N/A";
+        }
+
+        return String.format(Locale.US, "%.4f", value);
+    }
+
+    // ------------------------------------------------------------------- public inner class
+    /**
+     * Builder
+     * ------------------------
+     *
+     * Collects the quotes of a refresh before they are frozen into a RateSnapshot
+     *
+     * @author  Michael Cunningham (http://michael-cunningham.ca)
+     * @since   October 18th, 2026
+     * @version v1.1
+     */
+    public static class Builder
+    {
+        private final String[]         aryCurrencies;
+        private final CurrencyRegistry objRegistry;
+        private final double[]         aryRates;
+        private final double[]         aryAsks;
+        private final double[]         aryBids;
+        private final long[]           aryQuoteTimes;
+        private final long[]           aryFetchedAt;
+        private final boolean[]        aryRevalidated;
+        private final long             lngFetchedAt;
+        private long                   lngCreated;
+
+        /**
+         * Constructs a new Builder with every pair unavailable, except the identity pairs, every
+         * quote put into it is stamped as fetched at the time the builder was constructed
+         *
+         * @param aryCurrencies - the currency table, in the order of R.array.currency_codes
+         */
+        public Builder(String[] aryCurrencies)
+        {
+            int count = aryCurrencies.length;
+
+            this.aryCurrencies  = aryCurrencies.clone();
+            this.objRegistry    = new CurrencyRegistry(aryCurrencies);
+            this.aryRates       = new double[count * count];
+            this.aryAsks        = new double[count * count];
+            this.aryBids        = new double[count * count];
+            this.aryQuoteTimes  = new long[count * count];
+            this.aryFetchedAt   = new long[count * count];
+            this.aryRevalidated = new boolean[count * count];
+            this.lngFetchedAt   = System.currentTimeMillis();
+            this.lngCreated     = QuoteTime.UNKNOWN;
+
+            Arrays.fill(aryRates, Double.NaN);
+            Arrays.fill(aryAsks, Double.NaN);
+            Arrays.fill(aryBids, Double.NaN);
+            Arrays.fill(aryQuoteTimes, QuoteTime.UNKNOWN);
+            Arrays.fill(aryFetchedAt, QuoteTime.UNKNOWN);
+
+            // converting a currency to itself never needs the network
+            for (int i = 0; i < count; i++)
+            {
+                int pair = (i * count) + i;
+
+                aryRates[pair] = 1;
+                aryAsks[pair]  = 1;
+                aryBids[pair]  = 1;
+            }
+        }
+
+        /**
+         * Get the position of a currency code in the currency table
+         *
+         * @param strCurrency - the currency code
+         * @return            - the position, or -1 if it is not in the table
+         */
+        public int indexOf(String strCurrency)
+        {
+            return objRegistry.getId(strCurrency);
+        }
+
+        /**
+         * Get the registry of the currency table, to look codes and pair ids up without building strings
+         *
+         * @return - the registry
+         */
+        public CurrencyRegistry getRegistry()
+        {
+            return objRegistry;
+        }
+
+        /**
+         * Sets the quote of a pair
+         *
+         * @param from      - the position of the currency converted from
+         * @param to        - the position of the currency converted to
+         * @param rate      - the rate
+         * @param ask       - the ask
+         * @param bid       - the bid
+         * @param quoteTime - the epoch milliseconds the pair was quoted at
+         * @return          - this builder
+         */
+        public Builder put(int from, int to, double rate, double ask, double bid, long quoteTime)
+        {
+            int pair = (from * aryCurrencies.length) + to;
+
+            aryRates[pair]      = rate;
+            aryAsks[pair]       = ask;
+            aryBids[pair]       = bid;
+            aryQuoteTimes[pair] = quoteTime;
+            aryFetchedAt[pair]  = lngFetchedAt;
+
+            return this;
+        }
+
+        /**
+         * Copies the directly fetched quotes of another builder over this one, used to merge the
+         * partial results of a refresh split into several requests
+         *
+         * @param objOther - a builder over the same currency table
+         * @return         - this builder
+         */
+        public Builder putAll(Builder objOther)
+        {
+            for (int pair = 0; pair < aryRates.length; pair++)
+            {
+                if (objOther.aryFetchedAt[pair] != QuoteTime.UNKNOWN)
+                {
+                    aryRates[pair]      = objOther.aryRates[pair];
+                    aryAsks[pair]       = objOther.aryAsks[pair];
+                    aryBids[pair]       = objOther.aryBids[pair];
+                    aryQuoteTimes[pair] = objOther.aryQuoteTimes[pair];
+                    aryFetchedAt[pair]  = objOther.aryFetchedAt[pair];
+                }
+
+                aryRevalidated[pair] |= objOther.aryRevalidated[pair];
+            }
+
+            lngCreated = Math.max(lngCreated, objOther.lngCreated);
+
+            return this;
+        }
+
+        /**
+         * Marks pairs the provider confirmed have not changed, ie. answered 304, so the quotes
+         * merged in for them from the older snapshot count as fetched just now
+         *
+         * @param aryPairs - the pairs, each one (from * currency count + to)
+         * @return         - this builder
+         */
+        public Builder putRevalidated(int[] aryPairs)
+        {
+            for (int pair : aryPairs)
+            {
+                aryRevalidated[pair] = true;
+            }
+
+            return this;
+        }
+
+        /**
+         * Carries the directly fetched quotes of an older snapshot over for the given pairs, where
+         * this builder did not get a quote of its own, ie. a part of the refresh was not modified,
+         * was not due yet or failed. Pairs outside of the given ones are left to be crossed.
+         *
+         * @param objBase  - the older snapshot, may be over a different currency table
+         * @param aryPairs - the pairs to carry over, each one (from * currency count + to)
+         * @return         - this builder
+         */
+        public Builder merge(RateSnapshot objBase, int[] aryPairs)
+        {
+            if ((objBase == null) || !Arrays.equals(aryCurrencies, objBase.aryCurrencies))
+            {
+                return this;
+            }
+
+            for (int pair : aryPairs)
+            {
+                if ((aryFetchedAt[pair] == QuoteTime.UNKNOWN) && (objBase.aryFetchedAt[pair] != QuoteTime.UNKNOWN))
+                {
+                    aryRates[pair]      = objBase.aryRates[pair];
+                    aryAsks[pair]       = objBase.aryAsks[pair];
+                    aryBids[pair]       = objBase.aryBids[pair];
+                    aryQuoteTimes[pair] = objBase.aryQuoteTimes[pair];
+                    aryFetchedAt[pair]  = aryRevalidated[pair] ? lngFetchedAt : objBase.aryFetchedAt[pair];
+                }
+            }
+
+            if (lngCreated == QuoteTime.UNKNOWN)
+            {
+                lngCreated = objBase.lngCreated;
+            }
+
+            return this;
+        }
+
+        /**
+         * Get whether any quote was put into this builder
+         *
+         * @return - true/false if the builder holds at least one fetched quote
+         */
+        public boolean hasQuotes()
+        {
+            for (long fetchedAt : aryFetchedAt)
+            {
+                if (fetchedAt != QuoteTime.UNKNOWN)
+                {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        /**
+         * Fills every pair that was not quoted directly by crossing the two legs quoted against the
+         * pivot currency, ie. EURJPY = USDJPY / USDEUR. The spread widens the same way a dealer's
+         * would, the bid of the cross sells through both legs and the ask buys through both legs.
+         *
+         * @param pivot - the position of the pivot currency
+         * @return      - this builder
+         */
+        public Builder triangulate(int pivot)
+        {
+            int count = aryCurrencies.length;
+
+            for (int from = 0; from < count; from++)
+            {
+                int legFrom = (pivot * count) + from;
+
+                for (int to = 0; to < count; to++)
+                {
+                    int pair  = (from * count) + to;
+                    int legTo = (pivot * count) + to;
+
+                    // a direct quote of "N/A" is crossed as well, but is no longer a direct quote
+                    if ((from != to) && ((aryFetchedAt[pair] == QuoteTime.UNKNOWN) || Double.isNaN(aryRates[pair])))
+                    {
+                        aryRates[pair]      = aryRates[legTo] / aryRates[legFrom];
+                        aryBids[pair]       = aryBids[legTo] / aryAsks[legFrom];
+                        aryAsks[pair]       = aryAsks[legTo] / aryBids[legFrom];
+                        aryQuoteTimes[pair] = getOlder(aryQuoteTimes[legFrom], aryQuoteTimes[legTo]);
+                        aryFetchedAt[pair]  = QuoteTime.UNKNOWN;
+                    }
+                }
+            }
+
+            return this;
+        }
+
+        /**
+         * Sets the time the provider created the response at
+         *
+         * @param lngCreated - epoch milliseconds
+         * @return           - this builder
+         */
+        public Builder setCreated(long lngCreated)
+        {
+            this.lngCreated = lngCreated;
+
+            return this;
+        }
+
+        /**
+         * Get the older of two quote times, a cross is only as fresh as its oldest leg
+         *
+         * @param first  - epoch milliseconds, or QuoteTime.UNKNOWN
+         * @param second - epoch milliseconds, or QuoteTime.UNKNOWN
+         * @return       - the older known time, or QuoteTime.UNKNOWN if neither is known
+         */
+        private static long getOlder(long first, long second)
+        {
+            if (first == QuoteTime.UNKNOWN)
+            {
+                return second;
+            }
+
+            if (second == QuoteTime.UNKNOWN)
+            {
+                return first;
+            }
+
+            return Math.min(first, second);
+        }
+
+        /**
+         * Freezes the collected quotes into a snapshot, the builder must not be used afterwards
+         *
+         * @return - the new snapshot
+         */
+        public RateSnapshot build()
+        {
+            return new RateSnapshot(this);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package ca.michael_cunningham.currencyconverter.rates;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * RateStore
+ * ------------------------
+ *
+ * Holds everything a refresh produces as one immutable State, published through an atomic
+ * reference. A writer never changes the current State, it builds a copy with its change and swaps
+ * it in, retrying if another writer swapped first. A reader takes the State once and works on it,
+ * so it never locks and never sees half of one refresh and half of the next.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public class RateStore
+{
+    // ------------------------------------------------------------------- private global variables
+    private final AtomicReference<State> objState;
+
+    // ------------------------------------------------------------------- constructors
+    /**
+     * Constructs a new, empty RateStore object
+     */
+    public RateStore()
+    {
+        this(null, null, false, 0);
+    }
+
+    /**
+     * Constructs a new RateStore object around a state saved before, ie. across a restart
+     *
+     * @param objSnapshot       - the snapshot, or null if there was none
+     * @param strLastRefreshed  - the last refreshed text
+     * @param lastRefreshFailed - whether the last refresh failed
+     * @param dblLastMove       - how far the rates moved on the last refresh
+     */
+    public RateStore(RateSnapshot objSnapshot, String strLastRefreshed, boolean lastRefreshFailed, double dblLastMove)
+    {
+        AmountConverter objConverter = (objSnapshot == null) ? null : new AmountConverter(objSnapshot);
+
+        this.objState = new AtomicReference<State>(new State(objSnapshot, objConverter, strLastRefreshed, lastRefreshFailed, dblLastMove));
+    }
+
+    // ------------------------------------------------------------------- get methods
+    /**
+     * Get the current state, read every value a single answer needs from the one state
+     *
+     * @return - the current state, never null
+     */
+    public State get()
+    {
+        return objState.get();
+    }
+
+    // ------------------------------------------------------------------- public methods
+    /**
+     * Publishes the snapshot of a successful refresh
+     *
+     * @param objSnapshot      - the new snapshot
+     * @param strLastRefreshed - the last refreshed text to show with it
+     * @param dblLastMove      - how far the rates moved since the snapshot it replaces
+     * @return                 - the state published
+     */
+    public State publish(RateSnapshot objSnapshot, String strLastRefreshed, double dblLastMove)
+    {
+        // the converter is fixed here, on the writer's thread, never by a reader, and nothing of
+        // the state it replaces is kept so there is nothing to retry
+        State objNext = new State(objSnapshot, new AmountConverter(objSnapshot), strLastRefreshed, false, dblLastMove);
+
+        objState.set(objNext);
+
+        return objNext;
+    }
+
+    /**
+     * Publishes a snapshot only if there is none yet, ie. one read from the cache, which must
+     * never replace the snapshot of a refresh that beat it
+     *
+     * @param objSnapshot - the snapshot
+     * @return            - true/false if the snapshot was published
+     */
+    public boolean publishIfEmpty(RateSnapshot objSnapshot)
+    {
+        AmountConverter objConverter = new AmountConverter(objSnapshot);
+        State           objCurrent;
+
+        do
+        {
+            objCurrent = objState.get();
+
+            if (objCurrent.objSnapshot != null)
+            {
+                return false;
+            }
+        }
+        while (!objState.compareAndSet(objCurrent, new State(objSnapshot, objConverter, objCurrent.strLastRefreshed,
+                objCurrent.lastRefreshFailed, objCurrent.dblLastMove)));
+
+        return true;
+    }
+
+    /**
+     * Publishes a refresh that found nothing had changed, the snapshot stays as it is
+     *
+     * @param strLastRefreshed - the last refreshed text to show
+     * @return                 - the state published
+     */
+    public State publishNotModified(String strLastRefreshed)
+    {
+        State objCurrent;
+        State objNext;
+
+        do
+        {
+            objCurrent = objState.get();
+            objNext    = new State(objCurrent.objSnapshot, objCurrent.objConverter, strLastRefreshed, false, 0);
+        }
+        while (!objState.compareAndSet(objCurrent, objNext));
+
+        return objNext;
+    }
+
+    /**
+     * Publishes a refresh that failed, the snapshot stays as it is
+     *
+     * @return - the state published
+     */
+    public State publishFailed()
+    {
+        State objCurrent;
+        State objNext;
+
+        do
+        {
+            objCurrent = objState.get();
+            objNext    = new State(objCurrent.objSnapshot, objCurrent.objConverter, objCurrent.strLastRefreshed, true, 0);
+        }
+        while (!objState.compareAndSet(objCurrent, objNext));
+
+        return objNext;
+    }
+
+    /**
+     * Set the last refreshed text, ie. the one saved from a previous run
+     *
+     * @param strLastRefreshed - the last refreshed text
+     */
+    public void setLastRefreshed(String strLastRefreshed)
+    {
+        State objCurrent;
+
+        do
+        {
+            objCurrent = objState.get();
+        }
+        while (!objState.compareAndSet(objCurrent, new State(objCurrent.objSnapshot, objCurrent.objConverter, strLastRefreshed,
+                objCurrent.lastRefreshFailed, objCurrent.dblLastMove)));
+    }
+
+    // ------------------------------------------------------------------- public inner class
+    /**
+     * State
+     * ------------------------
+     *
+     * One consistent view of the rates, never changed once published
+     *
+     * @author  Michael Cunningham (http://michael-cunningham.ca)
+     * @since   October 18th, 2026
+     * @version v1.1
+     */
+    public static final class State
+    {
+        private final RateSnapshot    objSnapshot;
+        private final AmountConverter objConverter;
+        private final String          strLastRefreshed;
+        private final boolean         lastRefreshFailed;
+        private final double          dblLastMove;
+
+        /**
+         * Constructs a new State object, only used by the store
+         *
+         * @param objSnapshot       - the snapshot, or null if there is none yet
+         * @param objConverter      - the fixed-point converter of the snapshot, or null with it
+         * @param strLastRefreshed  - the last refreshed text
+         * @param lastRefreshFailed - whether the last refresh failed
+         * @param dblLastMove       - how far the rates moved on the last refresh
+         */
+        private State(RateSnapshot objSnapshot, AmountConverter objConverter, String strLastRefreshed, boolean lastRefreshFailed, double dblLastMove)
+        {
+            this.objSnapshot       = objSnapshot;
+            this.objConverter      = objConverter;
+            this.strLastRefreshed  = strLastRefreshed;
+            this.lastRefreshFailed = lastRefreshFailed;
+            this.dblLastMove       = dblLastMove;
+        }
+
+        /**
+         * Get the snapshot
+         *
+         * @return - the snapshot, or null if there are no rates yet
+         */
+        public RateSnapshot getSnapshot()
+        {
+            return objSnapshot;
+        }
+
+        /**
+         * Get the fixed-point converter of the snapshot
+         *
+         * @return - the converter, or null if there are no rates yet
+         */
+        public AmountConverter getConverter()
+        {
+            return objConverter;
+        }
+
+        /**
+         * Get the last refreshed text
+         *
+         * @return - the last refreshed text, or null if it was never set
+         */
+        public String getLastRefreshed()
+        {
+            return strLastRefreshed;
+        }
+
+        /**
+         * Get whether the last refresh failed to reach the provider at all
+         *
+         * @return - true/false if the last refresh failed
+         */
+        public boolean hasLastRefreshFailed()
+        {
+            return lastRefreshFailed;
+        }
+
+        /**
+         * Get how far the rates moved on the last refresh, as the mean relative change of the fetched pairs
+         *
+         * @return - the move, 0 if nothing changed
+         */
+        public double getLastMove()
+        {
+            return dblLastMove;
+        }
+    }
+}
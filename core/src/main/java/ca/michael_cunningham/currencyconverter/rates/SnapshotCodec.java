@@ -0,0 +1,252 @@
+package ca.michael_cunningham.currencyconverter.rates;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * SnapshotCodec
+ * ------------------------
+ *
+ * An abstract Java class used for converting a RateSnapshot to and from a versioned, fixed-layout
+ * binary format. Every section sits at an offset computed from the currency count alone, so a
+ * snapshot is loaded with bulk primitive copies instead of deserializing and parsing.
+ *
+ * Layout (little-endian):
+ *
+ *   header    magic int, version short, reserved short, count int, reserved int, created long,
+ *             written long
+ *   currency  count * 4 bytes, ASCII code padded with zeros, padded to a multiple of 8
+ *   rates     count * count doubles
+ *   asks      count * count doubles
+ *   bids      count * count doubles
+ *   times     count * count longs
+ *   fetched   count * count longs, version 2 onwards
+ *   trailer   CRC32 int over every byte before it
+ *
+ * Version 1 files, written before the fetched column existed, are still read, every pair as
+ * never fetched, so the rates are shown as stale until they are fetched again.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public abstract class SnapshotCodec
+{
+    // ------------------------------------------------------------------- public class constants
+    public static final int   MAGIC     = 0x53524343; // "CCRS" in little-endian
+    public static final short VERSION   = 2;
+    public static final short VERSION_1 = 1;
+
+    // ------------------------------------------------------------------- private class constants
+    private static final int HEADER_SIZE   = 32;
+    private static final int CURRENCY_SIZE = 4;
+    private static final int TRAILER_SIZE  = 4;
+
+    /**
+     * Encodes a snapshot into a new buffer, positioned at zero and ready to be written
+     *
+     * @param objSnapshot - the snapshot to encode
+     * @param lngWritten  - epoch milliseconds the snapshot is written at
+     * @return            - the encoded buffer
+     */
+    public static ByteBuffer encode(RateSnapshot objSnapshot, long lngWritten)
+    {
+        int        count     = objSnapshot.getCount();
+        int        pairs     = count * count;
+        ByteBuffer objBuffer = ByteBuffer.allocate(getSize(count, VERSION)).order(ByteOrder.LITTLE_ENDIAN);
+
+        // header
+        objBuffer.putInt(MAGIC);
+        objBuffer.putShort(VERSION);
+        objBuffer.putShort((short) 0);
+        objBuffer.putInt(count);
+        objBuffer.putInt(0);
+        objBuffer.putLong(objSnapshot.getCreated());
+        objBuffer.putLong(lngWritten);
+
+        // currency table
+        for (int i = 0; i < count; i++)
+        {
+            String strCurrency = objSnapshot.getCurrency(i);
+
+            for (int x = 0; x < CURRENCY_SIZE; x++)
+            {
+                objBuffer.put((x < strCurrency.length()) ? (byte) strCurrency.charAt(x) : 0);
+            }
+        }
+
+        objBuffer.position(HEADER_SIZE + getCurrencyTableSize(count));
+
+        // primitive columns
+        objBuffer.asDoubleBuffer().put(objSnapshot.aryRates, 0, pairs);
+        objBuffer.position(objBuffer.position() + (pairs * 8));
+        objBuffer.asDoubleBuffer().put(objSnapshot.aryAsks, 0, pairs);
+        objBuffer.position(objBuffer.position() + (pairs * 8));
+        objBuffer.asDoubleBuffer().put(objSnapshot.aryBids, 0, pairs);
+        objBuffer.position(objBuffer.position() + (pairs * 8));
+        objBuffer.asLongBuffer().put(objSnapshot.aryQuoteTimes, 0, pairs);
+        objBuffer.position(objBuffer.position() + (pairs * 8));
+        objBuffer.asLongBuffer().put(objSnapshot.aryFetchedAt, 0, pairs);
+        objBuffer.position(objBuffer.position() + (pairs * 8));
+
+        // trailer
+        objBuffer.putInt(getChecksum(objBuffer.array(), objBuffer.arrayOffset(), objBuffer.position()));
+        objBuffer.flip();
+
+        return objBuffer;
+    }
+
+    /**
+     * Decodes a snapshot from a buffer holding a whole snapshot file
+     *
+     * @param objBuffer - the buffer, read from its position to its limit
+     * @return          - the snapshot, or null if the buffer is not a valid snapshot of this version or version 1
+     */
+    public static RateSnapshot decode(ByteBuffer objBuffer)
+    {
+        objBuffer = objBuffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+
+        if ((objBuffer.remaining() < HEADER_SIZE) || (objBuffer.getInt(0) != MAGIC))
+        {
+            return null;
+        }
+
+        short version = objBuffer.getShort(4);
+        int   count   = objBuffer.getInt(8);
+
+        if (((version != VERSION) && (version != VERSION_1)) || (count <= 0) || (objBuffer.remaining() != getSize(count, version)))
+        {
+            return null;
+        }
+
+        // the checksum covers everything except itself
+        int length = objBuffer.remaining() - TRAILER_SIZE;
+
+        if (objBuffer.getInt(length) != getChecksum(objBuffer, length))
+        {
+            return null;
+        }
+
+        int      pairs         = count * count;
+        String[] aryCurrencies = new String[count];
+        double[] aryRates      = new double[pairs];
+        double[] aryAsks       = new double[pairs];
+        double[] aryBids       = new double[pairs];
+        long[]   aryQuoteTimes = new long[pairs];
+        long[]   aryFetchedAt  = new long[pairs];
+        long     lngCreated    = objBuffer.getLong(16);
+
+        // currency table
+        for (int i = 0; i < count; i++)
+        {
+            StringBuilder strCurrency = new StringBuilder(CURRENCY_SIZE);
+
+            for (int x = 0; x < CURRENCY_SIZE; x++)
+            {
+                byte character = objBuffer.get(HEADER_SIZE + (i * CURRENCY_SIZE) + x);
+
+                if (character != 0)
+                {
+                    strCurrency.append((char) character);
+                }
+            }
+
+            aryCurrencies[i] = strCurrency.toString();
+        }
+
+        // primitive columns, each one a single bulk copy
+        objBuffer.position(HEADER_SIZE + getCurrencyTableSize(count));
+        objBuffer.asDoubleBuffer().get(aryRates);
+        objBuffer.position(objBuffer.position() + (pairs * 8));
+        objBuffer.asDoubleBuffer().get(aryAsks);
+        objBuffer.position(objBuffer.position() + (pairs * 8));
+        objBuffer.asDoubleBuffer().get(aryBids);
+        objBuffer.position(objBuffer.position() + (pairs * 8));
+        objBuffer.asLongBuffer().get(aryQuoteTimes);
+        objBuffer.position(objBuffer.position() + (pairs * 8));
+
+        if (version == VERSION_1)
+        {
+            Arrays.fill(aryFetchedAt, QuoteTime.UNKNOWN);
+        }
+        else
+        {
+            objBuffer.asLongBuffer().get(aryFetchedAt);
+        }
+
+        return new RateSnapshot(aryCurrencies, aryRates, aryAsks, aryBids, aryQuoteTimes, aryFetchedAt, lngCreated);
+    }
+
+    // ------------------------------------------------------------------- private methods
+    /**
+     * Get the total size of an encoded snapshot
+     *
+     * @param count   - the currency count
+     * @param version - the version of the layout, version 1 has no fetched column
+     * @return        - the size in bytes
+     */
+    private static int getSize(int count, short version)
+    {
+        int columns = (version == VERSION_1) ? 4 : 5;
+
+        return HEADER_SIZE + getCurrencyTableSize(count) + (count * count * 8 * columns) + TRAILER_SIZE;
+    }
+
+    /**
+     * Get the size of the currency table, padded so the columns after it are 8 byte aligned
+     *
+     * @param count - the currency count
+     * @return      - the size in bytes
+     */
+    private static int getCurrencyTableSize(int count)
+    {
+        return ((count * CURRENCY_SIZE) + 7) & ~7;
+    }
+
+    /**
+     * Get the CRC32 of a region of a byte array
+     *
+     * @param aryBytes - the bytes
+     * @param offset   - the start of the region
+     * @param length   - the length of the region
+     * @return         - the checksum
+     */
+    private static int getChecksum(byte[] aryBytes, int offset, int length)
+    {
+        CRC32 objChecksum = new CRC32();
+        objChecksum.update(aryBytes, offset, length);
+
+        return (int) objChecksum.getValue();
+    }
+
+    /**
+     * Get the CRC32 of the start of a buffer, which may be direct or memory-mapped
+     *
+     * @param objBuffer - the buffer
+     * @param length    - the number of bytes from the start to include
+     * @return          - the checksum
+     */
+    private static int getChecksum(ByteBuffer objBuffer, int length)
+    {
+        if (objBuffer.hasArray())
+        {
+            return getChecksum(objBuffer.array(), objBuffer.arrayOffset(), length);
+        }
+
+        CRC32  objChecksum = new CRC32();
+        byte[] aryChunk    = new byte[8192];
+
+        for (int offset = 0; offset < length; offset += aryChunk.length)
+        {
+            int size = Math.min(aryChunk.length, length - offset);
+
+            objBuffer.position(offset);
+            objBuffer.get(aryChunk, 0, size);
+            objChecksum.update(aryChunk, 0, size);
+        }
+
+        return (int) objChecksum.getValue();
+    }
+}
@@ -0,0 +1,246 @@
+package ca.michael_cunningham.currencyconverter.rates;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * YahooRateParser
+ * ------------------------
+ *
+ * An abstract Java class used for pulling the rates out of a yahoo.finance.xchange response one
+ * token at a time, straight into a RateSnapshot.Builder. The response is never held in memory as
+ * a whole, so the heap used by a refresh does not grow with the size of the payload. Gson's reader
+ * is the one android.util.JsonReader was taken from, so the parser runs the same on a device and
+ * on a plain JVM.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public abstract class YahooRateParser
+{
+    /**
+     * Parses a response into the given builder, quotes for currencies outside of the builder's
+     * currency table are skipped
+     *
+     * @param inReader   - the reader over the JSON response
+     * @param objBuilder - the builder to put the quotes into
+     * @return           - the number of quotes put into the builder
+     * @throws IOException - if the response could not be read or is not valid JSON
+     */
+    public static int parse(Reader inReader, RateSnapshot.Builder objBuilder) throws IOException
+    {
+        JsonReader objReader = new JsonReader(inReader);
+        int        count     = 0;
+
+        try
+        {
+            objReader.beginObject();
+
+            while (objReader.hasNext())
+            {
+                if (objReader.nextName().equals("query"))
+                {
+                    count += parseQuery(objReader, objBuilder);
+                }
+                else
+                {
+                    objReader.skipValue();
+                }
+            }
+
+            objReader.endObject();
+        }
+        catch (IllegalStateException e)
+        {
+            // JsonReader reports unexpected tokens as a runtime exception
+            throw new IOException(e.getMessage());
+        }
+        finally
+        {
+            objReader.close();
+        }
+
+        return count;
+    }
+
+    // ------------------------------------------------------------------- private methods
+    /**
+     * Parses the "query" object, holding the created time and the results
+     *
+     * @param objReader  - the reader positioned at the query object
+     * @param objBuilder - the builder to put the quotes into
+     * @return           - the number of quotes put into the builder
+     * @throws IOException - if the response could not be read
+     */
+    private static int parseQuery(JsonReader objReader, RateSnapshot.Builder objBuilder) throws IOException
+    {
+        int count = 0;
+
+        objReader.beginObject();
+
+        while (objReader.hasNext())
+        {
+            String strName = objReader.nextName();
+
+            if (strName.equals("created") && (objReader.peek() == JsonToken.STRING))
+            {
+                objBuilder.setCreated(QuoteTime.parseCreated(objReader.nextString()));
+            }
+            else if (strName.equals("results") && (objReader.peek() == JsonToken.BEGIN_OBJECT))
+            {
+                objReader.beginObject();
+
+                while (objReader.hasNext())
+                {
+                    if (objReader.nextName().equals("rate"))
+                    {
+                        count += parseRates(objReader, objBuilder);
+                    }
+                    else
+                    {
+                        objReader.skipValue();
+                    }
+                }
+
+                objReader.endObject();
+            }
+            else
+            {
+                objReader.skipValue();
+            }
+        }
+
+        objReader.endObject();
+
+        return count;
+    }
+
+    /**
+     * Parses the "rate" value, which is an array, or a single object when only one pair was asked for
+     *
+     * @param objReader  - the reader positioned at the rate value
+     * @param objBuilder - the builder to put the quotes into
+     * @return           - the number of quotes put into the builder
+     * @throws IOException - if the response could not be read
+     */
+    private static int parseRates(JsonReader objReader, RateSnapshot.Builder objBuilder) throws IOException
+    {
+        int count = 0;
+
+        if (objReader.peek() == JsonToken.BEGIN_ARRAY)
+        {
+            objReader.beginArray();
+
+            while (objReader.hasNext())
+            {
+                count += parseRate(objReader, objBuilder);
+            }
+
+            objReader.endArray();
+        }
+        else if (objReader.peek() == JsonToken.BEGIN_OBJECT)
+        {
+            count += parseRate(objReader, objBuilder);
+        }
+        else
+        {
+            objReader.skipValue();
+        }
+
+        return count;
+    }
+
+    /**
+     * Parses a single rate object, ie. {"id":"USDEUR","Rate":"0.8025","Date":"12/2/2014",...}
+     *
+     * @param objReader  - the reader positioned at the rate object
+     * @param objBuilder - the builder to put the quote into
+     * @return           - 1 if the quote was put into the builder, otherwise 0
+     * @throws IOException - if the response could not be read
+     */
+    private static int parseRate(JsonReader objReader, RateSnapshot.Builder objBuilder) throws IOException
+    {
+        String strId   = null;
+        String strDate = null;
+        String strTime = null;
+        double rate    = Double.NaN;
+        double ask     = Double.NaN;
+        double bid     = Double.NaN;
+
+        objReader.beginObject();
+
+        while (objReader.hasNext())
+        {
+            String strName = objReader.nextName();
+
+            if (objReader.peek() != JsonToken.STRING)
+            {
+                objReader.skipValue();
+            }
+            else if (strName.equals("id"))
+            {
+                strId = objReader.nextString();
+            }
+            else if (strName.equals("Rate"))
+            {
+                rate = parseValue(objReader.nextString());
+            }
+            else if (strName.equals("Ask"))
+            {
+                ask = parseValue(objReader.nextString());
+            }
+            else if (strName.equals("Bid"))
+            {
+                bid = parseValue(objReader.nextString());
+            }
+            else if (strName.equals("Date"))
+            {
+                strDate = objReader.nextString();
+            }
+            else if (strName.equals("Time"))
+            {
+                strTime = objReader.nextString();
+            }
+            else
+            {
+                objReader.skipValue();
+            }
+        }
+
+        objReader.endObject();
+
+        // the id is looked up in place, with no substrings and no string comparisons
+        CurrencyRegistry objRegistry = objBuilder.getRegistry();
+        int              pair        = objRegistry.getPair(strId);
+
+        if (pair == RateSnapshot.NO_PAIR)
+        {
+            return 0;
+        }
+
+        objBuilder.put(objRegistry.getFrom(pair), objRegistry.getTo(pair), rate, ask, bid, QuoteTime.parseQuote(strDate, strTime));
+
+        return 1;
+    }
+
+    /**
+     * Parses a numeric value, Yahoo sends "N/A" for unknown values
+     *
+     * @param strValue - the value as a string
+     * @return         - the value, or NaN if it is not a number
+     */
+    private static double parseValue(String strValue)
+    {
+        try
+        {
+            return Double.parseDouble(strValue);
+        }
+        catch (NumberFormatException e)
+        {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package ca.michael_cunningham.currencyconverter.rates;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.util.HashMap;
+import ca.michael_cunningham.currencyconverter.interfaces.RateProvider;
+import ca.michael_cunningham.currencyconverter.interfaces.Transport;
+import ca.michael_cunningham.currencyconverter.tools.Metrics;
+
+/**
+ * YahooRateProvider
+ * ------------------------
+ *
+ * Fetches rates from Yahoo's public yahoo.finance.xchange YQL table over the given transport
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public class YahooRateProvider implements RateProvider
+{
+    // ------------------------------------------------------------------- public class constants
+    public static final String URL_HOST = "https://query.yahooapis.com/";
+
+    // ------------------------------------------------------------------- private class constants
+    private static final String URL_PREPEND = URL_HOST + "v1/public/yql?q=select%20*%20from%20yahoo.finance.xchange%20where%20pair%20in%20(";
+    private static final String URL_APPEND  = ")&format=json&env=store%3A%2F%2Fdatatables.org%2Falltableswithkeys&callback=";
+
+    // ------------------------------------------------------------------- private global variables
+    private final HashMap<String, String[]> mapValidators = new HashMap<String, String[]>();
+    private final Transport                 objTransport;
+
+    // ------------------------------------------------------------------- constructors
+    /**
+     * Constructs a new YahooRateProvider object
+     *
+     * @param objTransport - the transport to send the queries over
+     */
+    public YahooRateProvider(Transport objTransport)
+    {
+        this.objTransport = objTransport;
+    }
+
+    // ------------------------------------------------------------------- get methods
+    /**
+     * Get the validators of the last response this provider returned quotes from, one per query
+     * url since a chunked refresh sends several different queries
+     *
+     * @return - a copy of the ETag and Last-Modified of each response, keyed by its url
+     */
+    public synchronized HashMap<String, String[]> getValidators()
+    {
+        return new HashMap<String, String[]>(mapValidators);
+    }
+
+    /**
+     * Set the validators to revalidate with, usually those persisted next to a cached snapshot
+     *
+     * @param mapValidators - the ETag and Last-Modified of each response keyed by its url, or null
+     */
+    public synchronized void setValidators(HashMap<String, String[]> mapValidators)
+    {
+        this.mapValidators.clear();
+
+        if (mapValidators != null)
+        {
+            this.mapValidators.putAll(mapValidators);
+        }
+    }
+
+    /**
+     * Get the validators of the last response to a single query
+     *
+     * @param strUrl - the url of the query
+     * @return       - the ETag and Last-Modified of the response, or null
+     */
+    private synchronized String[] getValidators(String strUrl)
+    {
+        return mapValidators.get(strUrl);
+    }
+
+    /**
+     * Set the validators of the last response to a single query
+     *
+     * @param strUrl        - the url of the query
+     * @param aryValidators - the ETag and Last-Modified of the response
+     */
+    private synchronized void setValidators(String strUrl, String[] aryValidators)
+    {
+        mapValidators.put(strUrl, aryValidators);
+    }
+
+    // ------------------------------------------------------------------- public methods
+    /**
+     * Fetches the quotes of the given pairs in a single YQL query
+     *
+     * @param aryCurrencies - the currency table the pairs index into
+     * @param aryPairs      - the pairs to fetch, each one (from * currency count + to)
+     * @return              - a builder holding the fetched quotes, or null if Yahoo answered 304
+     * @throws IOException  - if the quotes could not be fetched or the response held none
+     */
+    @Override
+    public RateSnapshot.Builder fetch(String[] aryCurrencies, int[] aryPairs) throws IOException
+    {
+        String   strUrl          = getUrl(aryCurrencies, aryPairs);
+        String[] aryLastVerified = getValidators(strUrl);
+        boolean  isConditional   = (aryLastVerified != null);
+
+        // fetch the data over the transport, revalidating when it is the very same query, the
+        // request is timed up to the headers, so it covers DNS, TLS and the wait on Yahoo
+        long               started     = Metrics.start();
+        Transport.Response objResponse = objTransport.get(strUrl, isConditional ? aryLastVerified[0] : null, isConditional ? aryLastVerified[1] : null);
+
+        Metrics.record(Metrics.TIMER_HTTP_REQUEST, started);
+
+        try
+        {
+            if (objResponse.getStatusCode() == HttpURLConnection.HTTP_NOT_MODIFIED)
+            {
+                return null;
+            }
+
+            RateSnapshot.Builder objBuilder = new RateSnapshot.Builder(aryCurrencies);
+
+            // pull the rates straight out of the response stream, the download and parse are one phase
+            started = Metrics.start();
+
+            int intQuotes = YahooRateParser.parse(new InputStreamReader(objResponse.getContent(), "UTF-8"), objBuilder);
+
+            Metrics.record(Metrics.TIMER_HTTP_PARSE, started);
+
+            if (intQuotes == 0)
+            {
+                throw new IOException("Yahoo returned no rates");
+            }
+
+            setValidators(strUrl, new String[] {
+                objResponse.getHeader("ETag"),
+                objResponse.getHeader("Last-Modified")
+            });
+
+            return objBuilder;
+        }
+        finally
+        {
+            objResponse.close();
+        }
+    }
+
+    // ------------------------------------------------------------------- private methods
+    /**
+     * Builds the YQL query url for the given pairs
+     *
+     * @param aryCurrencies - the currency table the pairs index into
+     * @param aryPairs      - the pairs to ask for
+     * @return              - the url
+     */
+    static String getUrl(String[] aryCurrencies, int[] aryPairs)
+    {
+        int           count        = aryCurrencies.length;
+        StringBuilder strParameter = new StringBuilder(URL_PREPEND);
+
+        for (int i = 0; i < aryPairs.length; i++)
+        {
+            if (i > 0)
+            {
+                strParameter.append("%2C%20");
+            }
+
+            strParameter.append("%22")
+                        .append(aryCurrencies[aryPairs[i] / count])
+                        .append(aryCurrencies[aryPairs[i] % count])
+                        .append("%22");
+        }
+
+        return strParameter.append(URL_APPEND).toString();
+    }
+}
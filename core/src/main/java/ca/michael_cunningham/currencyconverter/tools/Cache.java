@@ -0,0 +1,263 @@
+package ca.michael_cunningham.currencyconverter.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Cache
+ * ------------------------
+ *
+ * A custom, abstract Java class used for saving and loading files in a directory, on Android the
+ * application's files directory from Context.getFilesDir().
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   December 2nd, 2014
+ * @version v1.0
+ */
+public abstract class Cache
+{
+    /**
+     * Attempts to write a given object to the disk with the given file name
+     *
+     * @param file    - a generic object to be written to the disk
+     * @param dir     - the directory the file is kept in
+     * @param path    - the path to the file, including the filename
+     * @return result - boolean, if the saving process was successful or not (true/false)
+     */
+    public static boolean saveFile(Object file, File dir, String path)
+    {
+        boolean result;
+
+        try
+        {
+            // setup streams
+            FileOutputStream   outFileStream   = new FileOutputStream(new File(dir, path));
+            ObjectOutputStream outObjectStream = new ObjectOutputStream(new BufferedOutputStream(outFileStream));
+
+            // write values to the stream
+            outObjectStream.writeObject(file);
+
+            // output done - flush it
+            outObjectStream.flush();
+            outObjectStream.close();
+
+            result = true;
+        }
+        catch (IOException e)
+        {
+            result = false;
+            e.printStackTrace();
+        }
+
+        return result;
+    }
+
+    /**
+     * Attempts to read a saved file from the disk into an a generic object to return
+     *
+     * @param dir      - the directory the file is kept in
+     * @param path     - the path to the file, including the filename
+     * @return rtnFile - a generic object which can be casted to different object types
+     */
+    public static Object loadFile(File dir, String path)
+    {
+        // declare dummy converter
+        Object rtnFile = null;
+
+        try
+        {
+            // setup streams
+            FileInputStream   inFileStream   = new FileInputStream(new File(dir, path));
+            ObjectInputStream inObjectStream = new ObjectInputStream(inFileStream);
+
+            // read values from the stream
+            rtnFile = inObjectStream.readObject();
+
+            // input done
+            inObjectStream.close();
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+        }
+        catch (ClassNotFoundException e)
+        {
+            e.printStackTrace();
+        }
+
+        return rtnFile;
+    }
+
+    /**
+     * Attempts to write the remaining bytes of a buffer to the disk with the given file name. The
+     * bytes go to a temporary file which is synced and then renamed over the old file, so a crash
+     * mid-write never leaves a half written file behind.
+     *
+     * @param buffer  - the bytes to write, from the buffer's position to its limit
+     * @param dir     - the directory the file is kept in
+     * @param path    - the path to the file, including the filename
+     * @return result - boolean, if the saving process was successful or not (true/false)
+     */
+    public static boolean saveBuffer(ByteBuffer buffer, File dir, String path)
+    {
+        File    file     = new File(dir, path);
+        File    tempFile = new File(dir, path + ".tmp");
+        boolean result   = false;
+
+        try
+        {
+            // setup streams
+            FileOutputStream outFileStream = new FileOutputStream(tempFile);
+            FileChannel      outChannel    = outFileStream.getChannel();
+
+            try
+            {
+                // write values to the channel
+                while (buffer.hasRemaining())
+                {
+                    outChannel.write(buffer);
+                }
+
+                // output done - make sure it is on the disk before it replaces the old file
+                outChannel.force(true);
+            }
+            finally
+            {
+                outFileStream.close();
+            }
+
+            result = tempFile.renameTo(file);
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+        }
+
+        if (!result)
+        {
+            tempFile.delete();
+        }
+
+        return result;
+    }
+
+    /**
+     * Attempts to read a whole file from the disk into a buffer with a single channel read
+     *
+     * @param dir        - the directory the file is kept in
+     * @param path       - the path to the file, including the filename
+     * @return rtnBuffer - the file's bytes, positioned at zero, or null if it could not be read
+     */
+    public static ByteBuffer loadBuffer(File dir, String path)
+    {
+        ByteBuffer rtnBuffer = null;
+
+        try
+        {
+            // setup streams
+            FileInputStream inFileStream = new FileInputStream(new File(dir, path));
+            FileChannel     inChannel    = inFileStream.getChannel();
+
+            try
+            {
+                // read values from the channel, a local file is normally read in one go
+                rtnBuffer = ByteBuffer.allocate((int) inChannel.size());
+
+                while (rtnBuffer.hasRemaining() && (inChannel.read(rtnBuffer) != -1))
+                {
+                    // keep reading until the buffer is full
+                }
+
+                rtnBuffer.flip();
+            }
+            finally
+            {
+                // input done
+                inFileStream.close();
+            }
+        }
+        catch (IOException e)
+        {
+            rtnBuffer = null;
+            e.printStackTrace();
+        }
+
+        return rtnBuffer;
+    }
+
+    /**
+     * Attempts to memory-map a whole file from the disk as read only
+     *
+     * @param dir        - the directory the file is kept in
+     * @param path       - the path to the file, including the filename
+     * @return rtnBuffer - the mapped bytes, or null if it could not be mapped
+     */
+    public static MappedByteBuffer mapFile(File dir, String path)
+    {
+        MappedByteBuffer rtnBuffer = null;
+
+        try
+        {
+            RandomAccessFile inFile = new RandomAccessFile(new File(dir, path), "r");
+
+            try
+            {
+                // the mapping stays valid after the file is closed
+                rtnBuffer = inFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, inFile.length());
+            }
+            finally
+            {
+                inFile.close();
+            }
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+        }
+
+        return rtnBuffer;
+    }
+
+    /**
+     * Deletes a specified file if it exists on the disk.
+     *
+     * @param dir      - the directory the file is kept in
+     * @param path     - the path to the file, including the filename
+     * @return boolean - if the file was deleted or not (true/false)
+     */
+    public static boolean deleteFile(File dir, String path)
+    {
+        if (fileExists(dir, path))
+        {
+            if (new File(dir, path).delete())
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Determines whether or not a file exists in the directory.
+     *
+     * @param dir      - the directory the file is kept in
+     * @param path     - the path to the file, including the filename
+     * @return boolean - if the file exists or not (true/false)
+     */
+    public static boolean fileExists(File dir, String path)
+    {
+        File file = new File(dir, path);
+
+        return file.exists();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,303 @@
+package ca.michael_cunningham.currencyconverter.tools;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Metrics
+ * ------------------------
+ *
+ * An abstract Java class used for counting events and timing the phases of a refresh or convert.
+ * Every counter and timer is fixed up front and recorded into atomics, so recording takes no lock
+ * and allocates nothing, from any thread. A timer keeps an HDR-style histogram, a bucket for every
+ * eighth of a power of two microseconds, so a percentile is never off by more than 12.5%.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public abstract class Metrics
+{
+    // ------------------------------------------------------------------- public class constants
+    public static final int COUNTER_CACHE_HIT      = 0;
+    public static final int COUNTER_CACHE_MISS     = 1;
+    public static final int COUNTER_REFRESH        = 2;
+    public static final int COUNTER_NOT_MODIFIED   = 3;
+    public static final int COUNTER_REFRESH_FAILED = 4;
+
+    public static final int TIMER_HTTP_REQUEST     = 0;
+    public static final int TIMER_HTTP_PARSE       = 1;
+    public static final int TIMER_FETCH            = 2;
+    public static final int TIMER_MERGE            = 3;
+    public static final int TIMER_CACHE_SAVE       = 4;
+    public static final int TIMER_CACHE_LOAD       = 5;
+    public static final int TIMER_REFRESH          = 6;
+    public static final int TIMER_CONVERT          = 7;
+    public static final int TIMER_DELIVERY         = 8;
+
+    // ------------------------------------------------------------------- private class constants
+    private static final String[] COUNTER_NAMES = {
+        "cache.hit", "cache.miss", "refresh", "refresh.not_modified", "refresh.failed"
+    };
+
+    private static final String[] TIMER_NAMES = {
+        "http.request", "http.parse", "fetch", "merge", "cache.save", "cache.load", "refresh",
+        "convert", "delivery"
+    };
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS     = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT    = 40;
+    private static final int BUCKETS         = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    // ------------------------------------------------------------------- private global variables
+    private static final AtomicLongArray aryCounters   = new AtomicLongArray(COUNTER_NAMES.length);
+    private static final Histogram[]     aryHistograms = new Histogram[TIMER_NAMES.length];
+
+    static
+    {
+        for (int i = 0; i < aryHistograms.length; i++)
+        {
+            aryHistograms[i] = new Histogram();
+        }
+    }
+
+    // ------------------------------------------------------------------- get methods
+    /**
+     * Get the value of a counter
+     *
+     * @param counter - one of the COUNTER_ constants
+     * @return        - the count
+     */
+    public static long getCount(int counter)
+    {
+        return aryCounters.get(counter);
+    }
+
+    /**
+     * Get the number of times a timer was recorded
+     *
+     * @param timer - one of the TIMER_ constants
+     * @return      - the count
+     */
+    public static long getTimerCount(int timer)
+    {
+        return aryHistograms[timer].lngCount.get();
+    }
+
+    /**
+     * Get a percentile of a timer
+     *
+     * @param timer      - one of the TIMER_ constants
+     * @param percentile - the percentile, between 0 and 100
+     * @return           - the time in microseconds, at the top of its bucket, or 0 if never recorded
+     */
+    public static long getPercentile(int timer, double percentile)
+    {
+        return aryHistograms[timer].getPercentile(percentile);
+    }
+
+    // ------------------------------------------------------------------- public methods
+    /**
+     * Get the time to pass to record() once the phase is over
+     *
+     * @return - the start time in nanoseconds
+     */
+    public static long start()
+    {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the time since a phase started
+     *
+     * @param timer - one of the TIMER_ constants
+     * @param start - the time returned from start()
+     */
+    public static void record(int timer, long start)
+    {
+        aryHistograms[timer].record((System.nanoTime() - start) / 1000);
+    }
+
+    /**
+     * Adds one to a counter
+     *
+     * @param counter - one of the COUNTER_ constants
+     */
+    public static void increment(int counter)
+    {
+        aryCounters.incrementAndGet(counter);
+    }
+
+    /**
+     * Sets every counter and timer back to zero, recordings made meanwhile may be kept or lost
+     */
+    public static void reset()
+    {
+        for (int i = 0; i < COUNTER_NAMES.length; i++)
+        {
+            aryCounters.set(i, 0);
+        }
+
+        for (Histogram objHistogram : aryHistograms)
+        {
+            objHistogram.reset();
+        }
+    }
+
+    /**
+     * Formats every counter and timer as a plain text table, times in milliseconds
+     *
+     * @return - the table
+     */
+    public static String dump()
+    {
+        StringBuilder strDump = new StringBuilder();
+
+        for (int i = 0; i < COUNTER_NAMES.length; i++)
+        {
+            strDump.append(String.format(Locale.US, "%-22s %10d%n", COUNTER_NAMES[i], aryCounters.get(i)));
+        }
+
+        strDump.append(String.format(Locale.US, "%n%-14s %7s %9s %9s %9s %9s %9s%n", "timer (ms)", "count", "mean", "p50", "p90", "p99", "max"));
+
+        for (int i = 0; i < TIMER_NAMES.length; i++)
+        {
+            Histogram objHistogram = aryHistograms[i];
+            long      count        = objHistogram.lngCount.get();
+            double    mean         = (count == 0) ? 0 : (objHistogram.lngSum.get() / (double) count);
+
+            strDump.append(String.format(Locale.US, "%-14s %7d %9.3f %9.3f %9.3f %9.3f %9.3f%n", TIMER_NAMES[i], count,
+                    mean / 1000, objHistogram.getPercentile(50) / 1000.0, objHistogram.getPercentile(90) / 1000.0,
+                    objHistogram.getPercentile(99) / 1000.0, objHistogram.lngMax.get() / 1000.0));
+        }
+
+        return strDump.toString();
+    }
+
+    // ------------------------------------------------------------------- private inner class
+    /**
+     * Histogram
+     * ------------------------
+     *
+     * Log-linear buckets of microseconds, the first SUB_BUCKETS values exact, then SUB_BUCKETS
+     * buckets for every power of two
+     *
+     * @author  Michael Cunningham (http://michael-cunningham.ca)
+     * @since   October 18th, 2026
+     * @version v1.1
+     */
+    private static class Histogram
+    {
+        private final AtomicLongArray aryBuckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong      lngCount   = new AtomicLong();
+        private final AtomicLong      lngSum     = new AtomicLong();
+        private final AtomicLong      lngMax     = new AtomicLong();
+
+        /**
+         * Records a single value
+         *
+         * @param value - the value in microseconds
+         */
+        private void record(long value)
+        {
+            value = Math.max(0, value);
+
+            aryBuckets.incrementAndGet(getBucket(value));
+            lngCount.incrementAndGet();
+            lngSum.addAndGet(value);
+
+            long max = lngMax.get();
+
+            while ((value > max) && !lngMax.compareAndSet(max, value))
+            {
+                max = lngMax.get();
+            }
+        }
+
+        /**
+         * Get a percentile, by walking the buckets up to it
+         *
+         * @param percentile - the percentile, between 0 and 100
+         * @return           - the top of the bucket the percentile falls in, capped at the maximum
+         */
+        private long getPercentile(double percentile)
+        {
+            long count = lngCount.get();
+
+            if (count == 0)
+            {
+                return 0;
+            }
+
+            long rank = Math.max(1, (long) Math.ceil((percentile / 100) * count));
+            long seen = 0;
+
+            for (int bucket = 0; bucket < BUCKETS; bucket++)
+            {
+                seen += aryBuckets.get(bucket);
+
+                if (seen >= rank)
+                {
+                    return Math.min(lngMax.get(), getBucketTop(bucket));
+                }
+            }
+
+            return lngMax.get();
+        }
+
+        /**
+         * Sets the histogram back to empty
+         */
+        private void reset()
+        {
+            for (int i = 0; i < BUCKETS; i++)
+            {
+                aryBuckets.set(i, 0);
+            }
+
+            lngCount.set(0);
+            lngSum.set(0);
+            lngMax.set(0);
+        }
+
+        /**
+         * Get the bucket a value falls in
+         *
+         * @param value - the value, not negative
+         * @return      - the bucket index
+         */
+        private static int getBucket(long value)
+        {
+            if (value < SUB_BUCKETS)
+            {
+                return (int) value;
+            }
+
+            int exponent = Math.min(MAX_EXPONENT, 63 - Long.numberOfLeadingZeros(value));
+            int sub      = (int) ((value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+
+            return ((exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS) + sub;
+        }
+
+        /**
+         * Get the largest value a bucket holds
+         *
+         * @param bucket - the bucket index
+         * @return       - the value
+         */
+        private static long getBucketTop(int bucket)
+        {
+            if (bucket < SUB_BUCKETS)
+            {
+                return bucket;
+            }
+
+            int exponent = (bucket / SUB_BUCKETS) + SUB_BUCKET_BITS - 1;
+            int sub      = bucket % SUB_BUCKETS;
+
+            return ((long) (SUB_BUCKETS + sub + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+        }
+    }
+}
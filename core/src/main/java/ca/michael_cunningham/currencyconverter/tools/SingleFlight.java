@@ -0,0 +1,103 @@
+package ca.michael_cunningham.currencyconverter.tools;
+
+import java.util.HashMap;
+
+/**
+ * SingleFlight
+ * ------------------------
+ *
+ * Keeps track of which pieces of work are in flight, by key, so a caller asking for work that is
+ * already running joins it instead of starting it a second time. The caller that starts the work
+ * lands it once it is done, and the one result is then shared with everyone who joined.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public class SingleFlight<K>
+{
+    // ------------------------------------------------------------------- private global variables
+    private final HashMap<K, Integer> mapInFlight = new HashMap<K, Integer>();
+    private int                       intStarted;
+    private int                       intCoalesced;
+
+    // ------------------------------------------------------------------- get methods
+    /**
+     * Get whether any work is in flight
+     *
+     * @return - true/false if at least one key is in flight
+     */
+    public synchronized boolean isInFlight()
+    {
+        return !mapInFlight.isEmpty();
+    }
+
+    /**
+     * Get whether the work of a key is in flight
+     *
+     * @param key - the key of the work
+     * @return    - true/false if the work is in flight
+     */
+    public synchronized boolean isInFlight(K key)
+    {
+        return mapInFlight.containsKey(key);
+    }
+
+    /**
+     * Get the number of times work was actually started
+     *
+     * @return - the started count
+     */
+    public synchronized int getStartedCount()
+    {
+        return intStarted;
+    }
+
+    /**
+     * Get the number of callers that joined work already in flight instead of starting it again
+     *
+     * @return - the coalesced count
+     */
+    public synchronized int getCoalescedCount()
+    {
+        return intCoalesced;
+    }
+
+    // ------------------------------------------------------------------- public methods
+    /**
+     * Asks for the work of a key, joining it if it is already in flight
+     *
+     * @param key - the key of the work
+     * @return    - true if the caller must start the work and land it, false if it joined
+     */
+    public synchronized boolean begin(K key)
+    {
+        Integer intCallers = mapInFlight.get(key);
+
+        if (intCallers != null)
+        {
+            mapInFlight.put(key, intCallers + 1);
+            intCoalesced++;
+
+            return false;
+        }
+
+        mapInFlight.put(key, 1);
+        intStarted++;
+
+        return true;
+    }
+
+    /**
+     * Lands the work of a key, the next caller to ask for it starts it again
+     *
+     * @param key - the key of the work
+     * @return    - the number of callers the work was shared with, including the one that started it
+     */
+    public synchronized int end(K key)
+    {
+        Integer intCallers = mapInFlight.remove(key);
+
+        return (intCallers == null) ? 0 : intCallers;
+    }
+}
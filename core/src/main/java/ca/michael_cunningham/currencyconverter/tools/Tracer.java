@@ -0,0 +1,225 @@
+package ca.michael_cunningham.currencyconverter.tools;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tracer
+ * ------------------------
+ *
+ * An abstract Java class used for recording a timeline of spans, ie. a task from the moment it is
+ * queued until its result is on screen, to see where a single slow refresh spent its time. Events
+ * go into a ring buffer allocated once, holding the last CAPACITY events, and are claimed with a
+ * single atomic increment, so recording takes no lock and allocates nothing. The buffer exports
+ * to the Chrome trace event format, which chrome://tracing and Perfetto open as is.
+ *
+ * Names must be constants, they are kept by reference and not copied.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public abstract class Tracer
+{
+    // ------------------------------------------------------------------- private class constants
+    private static final int  CAPACITY          = 8192;
+    private static final int  MASK              = CAPACITY - 1;
+    private static final char PHASE_BEGIN       = 'B';
+    private static final char PHASE_END         = 'E';
+    private static final char PHASE_ASYNC_BEGIN = 'b';
+    private static final char PHASE_ASYNC_END   = 'e';
+    private static final char PHASE_INSTANT     = 'i';
+
+    // ------------------------------------------------------------------- private global variables
+    private static final AtomicLong          lngNext        = new AtomicLong();
+    private static final AtomicLong          lngNextId      = new AtomicLong();
+    private static final AtomicLongArray     arySequences   = new AtomicLongArray(CAPACITY);
+    private static final long[]              aryTimes       = new long[CAPACITY];
+    private static final long[]              aryThreads     = new long[CAPACITY];
+    private static final long[]              aryIds         = new long[CAPACITY];
+    private static final char[]              aryPhases      = new char[CAPACITY];
+    private static final String[]            aryNames       = new String[CAPACITY];
+    private static final Map<Long, String>   mapThreadNames = new ConcurrentHashMap<Long, String>();
+    private static final ThreadLocal<Object> objRegistered  = new ThreadLocal<Object>();
+    private static volatile boolean          isEnabled      = true;
+
+    // ------------------------------------------------------------------- get methods
+    /**
+     * Get a new id to tie the two ends of an async span together
+     *
+     * @return - the id
+     */
+    public static long newId()
+    {
+        return lngNextId.incrementAndGet();
+    }
+
+    /**
+     * Set whether events are recorded at all
+     *
+     * @param isEnabled - true/false if tracing is on
+     */
+    public static void setEnabled(boolean isEnabled)
+    {
+        Tracer.isEnabled = isEnabled;
+    }
+
+    // ------------------------------------------------------------------- public methods
+    /**
+     * Begins a span on the calling thread, it must be ended on the same thread
+     *
+     * @param strName - the name of the span
+     */
+    public static void begin(String strName)
+    {
+        record(PHASE_BEGIN, strName, 0);
+    }
+
+    /**
+     * Ends the innermost span begun on the calling thread
+     *
+     * @param strName - the name of the span
+     */
+    public static void end(String strName)
+    {
+        record(PHASE_END, strName, 0);
+    }
+
+    /**
+     * Begins a span that may end on another thread
+     *
+     * @param strName - the name of the span
+     * @param id      - the id from newId(), passed again to endAsync()
+     */
+    public static void beginAsync(String strName, long id)
+    {
+        record(PHASE_ASYNC_BEGIN, strName, id);
+    }
+
+    /**
+     * Ends a span begun with beginAsync()
+     *
+     * @param strName - the name of the span
+     * @param id      - the id the span was begun with
+     */
+    public static void endAsync(String strName, long id)
+    {
+        record(PHASE_ASYNC_END, strName, id);
+    }
+
+    /**
+     * Marks a single point in time on the calling thread
+     *
+     * @param strName - the name of the event
+     */
+    public static void instant(String strName)
+    {
+        record(PHASE_INSTANT, strName, 0);
+    }
+
+    /**
+     * Writes the events in the buffer as a Chrome trace event JSON file. Events being written while
+     * the buffer is exported are left out, as are spans whose begin has already been overwritten.
+     *
+     * @param outWriter - the writer to write to, left open
+     * @throws IOException - if the trace could not be written
+     */
+    public static void export(Writer outWriter) throws IOException
+    {
+        long    last    = lngNext.get();
+        long    first   = Math.max(0, last - CAPACITY);
+        boolean isFirst = true;
+
+        outWriter.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+
+        for (Map.Entry<Long, String> objThread : mapThreadNames.entrySet())
+        {
+            outWriter.write(isFirst ? "\n" : ",\n");
+            outWriter.write("{\"ph\":\"M\",\"name\":\"thread_name\",\"pid\":1,\"tid\":" + objThread.getKey()
+                    + ",\"args\":{\"name\":\"" + escape(objThread.getValue()) + "\"}}");
+
+            isFirst = false;
+        }
+
+        for (long sequence = first; sequence < last; sequence++)
+        {
+            int slot = (int) (sequence & MASK);
+
+            // a slot is read between two checks of its sequence, a writer lapping it in between is caught
+            if (arySequences.get(slot) != (sequence + 1))
+            {
+                continue;
+            }
+
+            char   phase    = aryPhases[slot];
+            String strEvent = "{\"ph\":\"" + phase + "\",\"name\":\"" + escape(aryNames[slot])
+                    + "\",\"cat\":\"app\",\"pid\":1,\"tid\":" + aryThreads[slot] + ",\"ts\":" + aryTimes[slot]
+                    + (((phase == PHASE_ASYNC_BEGIN) || (phase == PHASE_ASYNC_END)) ? (",\"id\":" + aryIds[slot]) : "")
+                    + ((phase == PHASE_INSTANT) ? ",\"s\":\"t\"" : "") + "}";
+
+            if (arySequences.get(slot) == (sequence + 1))
+            {
+                outWriter.write(isFirst ? "\n" : ",\n");
+                outWriter.write(strEvent);
+
+                isFirst = false;
+            }
+        }
+
+        outWriter.write("\n]}\n");
+        outWriter.flush();
+    }
+
+    // ------------------------------------------------------------------- private methods
+    /**
+     * Claims the next slot of the ring buffer and writes an event into it
+     *
+     * @param phase   - the trace event phase
+     * @param strName - the name of the event
+     * @param id      - the async id, or 0
+     */
+    private static void record(char phase, String strName, long id)
+    {
+        if (!isEnabled)
+        {
+            return;
+        }
+
+        Thread objThread = Thread.currentThread();
+        long   sequence  = lngNext.getAndIncrement();
+        int    slot      = (int) (sequence & MASK);
+
+        // a thread's name is only looked up the first time it records
+        if (objRegistered.get() == null)
+        {
+            objRegistered.set(Boolean.TRUE);
+            mapThreadNames.put(objThread.getId(), objThread.getName());
+        }
+
+        // the slot is marked as being written, filled in, then published with its own sequence
+        arySequences.set(slot, 0);
+
+        aryTimes[slot]   = System.nanoTime() / 1000;
+        aryThreads[slot] = objThread.getId();
+        aryIds[slot]     = id;
+        aryPhases[slot]  = phase;
+        aryNames[slot]   = strName;
+
+        arySequences.set(slot, sequence + 1);
+    }
+
+    /**
+     * Escapes a string for a JSON string literal
+     *
+     * @param strValue - the string
+     * @return         - the escaped string
+     */
+    private static String escape(String strValue)
+    {
+        return strValue.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
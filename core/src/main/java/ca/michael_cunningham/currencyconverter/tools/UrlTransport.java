@@ -0,0 +1,109 @@
+package ca.michael_cunningham.currencyconverter.tools;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.zip.GZIPInputStream;
+import ca.michael_cunningham.currencyconverter.interfaces.Transport;
+
+/**
+ * UrlTransport
+ * ------------------------
+ *
+ * A Transport over the JDK's own HttpURLConnection, for running the providers on a plain JVM. The
+ * JDK keeps connections alive and pools them per host on its own, as long as every body is read
+ * to its end or the response is closed.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public class UrlTransport implements Transport
+{
+    // ------------------------------------------------------------------- private class constants
+    private static final int TIMEOUT_CONNECT = 15000;
+    private static final int TIMEOUT_SOCKET  = 30000;
+
+    // ------------------------------------------------------------------- public methods
+    /**
+     * Issues a GET asking for a gzipped response, conditional on the given validators
+     *
+     * @param url             - the url to fetch
+     * @param strETag         - the ETag of the last response, or null
+     * @param strLastModified - the Last-Modified of the last response, or null
+     * @return                - the response, it must be closed to free the connection
+     * @throws IOException    - if the request failed
+     */
+    @Override
+    public Transport.Response get(String url, String strETag, String strLastModified) throws IOException
+    {
+        final HttpURLConnection objConnection = (HttpURLConnection) new URL(url).openConnection();
+
+        objConnection.setConnectTimeout(TIMEOUT_CONNECT);
+        objConnection.setReadTimeout(TIMEOUT_SOCKET);
+        objConnection.setRequestProperty("Accept-Encoding", "gzip");
+
+        if (strETag != null)
+        {
+            objConnection.setRequestProperty("If-None-Match", strETag);
+        }
+
+        if (strLastModified != null)
+        {
+            objConnection.setRequestProperty("If-Modified-Since", strLastModified);
+        }
+
+        final int status = objConnection.getResponseCode();
+
+        return new Transport.Response()
+        {
+            private InputStream inStream;
+
+            @Override
+            public int getStatusCode()
+            {
+                return status;
+            }
+
+            @Override
+            public String getHeader(String strName)
+            {
+                return objConnection.getHeaderField(strName);
+            }
+
+            @Override
+            public InputStream getContent() throws IOException
+            {
+                inStream = (status >= 400) ? objConnection.getErrorStream() : objConnection.getInputStream();
+
+                if (inStream == null)
+                {
+                    throw new IOException("The response has no body");
+                }
+
+                if ("gzip".equalsIgnoreCase(objConnection.getContentEncoding()))
+                {
+                    inStream = new GZIPInputStream(inStream);
+                }
+
+                return inStream;
+            }
+
+            @Override
+            public void close() throws IOException
+            {
+                // closing the body, rather than disconnecting, leaves the connection in the pool
+                if (inStream == null)
+                {
+                    inStream = (status >= 400) ? objConnection.getErrorStream() : objConnection.getInputStream();
+                }
+
+                if (inStream != null)
+                {
+                    inStream.close();
+                }
+            }
+        };
+    }
+}
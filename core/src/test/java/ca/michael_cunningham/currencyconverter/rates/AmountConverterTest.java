@@ -0,0 +1,118 @@
+package ca.michael_cunningham.currencyconverter.rates;
+
+import junit.framework.TestCase;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Random;
+
+/**
+ * Cross-checks the fixed-point AmountConverter against a BigDecimal reference
+ */
+public class AmountConverterTest extends TestCase
+{
+    private static final String[] CURRENCIES = { "USD", "JPY", "BHD", "EUR" };
+
+    private RateSnapshot    objSnapshot;
+    private AmountConverter objConverter;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+
+        RateSnapshot.Builder objBuilder = new RateSnapshot.Builder(CURRENCIES);
+
+        objBuilder.put(0, 1, 149.8725, 149.8750, 149.8700, 0);
+        objBuilder.put(0, 2, 0.376, 0.3762, 0.3758, 0);
+        objBuilder.put(0, 3, 0.9213, 0.9215, 0.9211, 0);
+
+        objSnapshot  = objBuilder.triangulate(0).build();
+        objConverter = new AmountConverter(objSnapshot);
+    }
+
+    public void testMinorUnits()
+    {
+        assertEquals(2, objConverter.getMinorUnits(0));
+        assertEquals(0, objConverter.getMinorUnits(1));
+        assertEquals(3, objConverter.getMinorUnits(2));
+    }
+
+    public void testTiesRoundToEven()
+    {
+        RateSnapshot.Builder objBuilder = new RateSnapshot.Builder(new String[] { "USD", "EUR" });
+
+        objBuilder.put(0, 1, 0.5, 0.5, 0.5, 0);
+
+        AmountConverter objHalf = new AmountConverter(objBuilder.build());
+
+        // half a cent rounds to the even neighbour either way
+        assertEquals(0, objHalf.convert(0, 1, 1, AmountConverter.SIDE_MID));
+        assertEquals(2, objHalf.convert(0, 1, 3, AmountConverter.SIDE_MID));
+        assertEquals(2, objHalf.convert(0, 1, 5, AmountConverter.SIDE_MID));
+        assertEquals(4, objHalf.convert(0, 1, 7, AmountConverter.SIDE_MID));
+        assertEquals(-2, objHalf.convert(0, 1, -3, AmountConverter.SIDE_MID));
+
+        // identity pairs never round
+        assertEquals(12345, objConverter.convert(0, 0, 12345, AmountConverter.SIDE_MID));
+        assertEquals(-12345, objConverter.convert(0, 0, -12345, AmountConverter.SIDE_MID));
+    }
+
+    public void testRandomAmountsMatchBigDecimal()
+    {
+        Random objRandom = new Random(42);
+        byte[] arySides  = { AmountConverter.SIDE_MID, AmountConverter.SIDE_BID, AmountConverter.SIDE_ASK };
+
+        for (int i = 0; i < 20000; i++)
+        {
+            int  from   = objRandom.nextInt(CURRENCIES.length);
+            int  to     = objRandom.nextInt(CURRENCIES.length);
+            byte side   = arySides[objRandom.nextInt(arySides.length)];
+            long amount = (objRandom.nextLong() % 100000000000000L);
+
+            assertEquals(CURRENCIES[from] + CURRENCIES[to] + " " + amount, reference(from, to, amount, side), objConverter.convert(from, to, amount, side));
+        }
+    }
+
+    public void testProductsBeyond64Bits()
+    {
+        // the product of the amount and the fixed rate is far past a long before it is divided down
+        long amount = 4000000000000000L;
+
+        assertEquals(reference(0, 1, amount, AmountConverter.SIDE_MID), objConverter.convert(0, 1, amount, AmountConverter.SIDE_MID));
+    }
+
+    public void testOverflowThrows()
+    {
+        try
+        {
+            objConverter.convert(0, 1, Long.MAX_VALUE, AmountConverter.SIDE_MID);
+            fail("Expected an ArithmeticException");
+        }
+        catch (ArithmeticException e)
+        {
+            // expected
+        }
+    }
+
+    public void testMissingRateIsNotAvailable()
+    {
+        RateSnapshot    objEmpty     = new RateSnapshot.Builder(CURRENCIES).build();
+        AmountConverter objConverter = new AmountConverter(objEmpty);
+
+        assertEquals(AmountConverter.NOT_AVAILABLE, objConverter.convert(0, 1, 100, AmountConverter.SIDE_MID));
+    }
+
+    /**
+     * The same conversion in BigDecimal, from the very same fixed rate
+     */
+    private long reference(int from, int to, long amount, byte side)
+    {
+        long       fixed  = objConverter.getFixedRate((from * CURRENCIES.length) + to, side);
+        BigDecimal rate   = new BigDecimal(BigInteger.valueOf(fixed), AmountConverter.RATE_DECIMALS);
+        BigDecimal value  = new BigDecimal(BigInteger.valueOf(amount), objConverter.getMinorUnits(from));
+        BigDecimal result = value.multiply(rate).setScale(objConverter.getMinorUnits(to), RoundingMode.HALF_EVEN);
+
+        return result.unscaledValue().longValue();
+    }
+}
@@ -0,0 +1,137 @@
+package ca.michael_cunningham.currencyconverter.rates;
+
+import junit.framework.TestCase;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import ca.michael_cunningham.currencyconverter.interfaces.RateProvider;
+
+/**
+ * Hedging and failover of the CompositeRateProvider against local stub providers
+ */
+public class CompositeRateProviderTest extends TestCase
+{
+    private static final String[] CURRENCIES = { "USD", "EUR" };
+    private static final int[]    PAIRS      = { 1 };
+
+    private ExecutorService objExecutor;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        objExecutor = Executors.newCachedThreadPool();
+    }
+
+    @Override
+    protected void tearDown() throws Exception
+    {
+        objExecutor.shutdownNow();
+        super.tearDown();
+    }
+
+    public void testFastPrimaryIsNotHedged() throws IOException
+    {
+        StubProvider          objPrimary   = new StubProvider(0.8, 0, false);
+        StubProvider          objSecondary = new StubProvider(0.9, 0, false);
+        CompositeRateProvider objComposite = new CompositeRateProvider(objPrimary, objSecondary, 95, objExecutor);
+
+        RateSnapshot objSnapshot = objComposite.fetch(CURRENCIES, PAIRS).build();
+
+        assertEquals(0.8, objSnapshot.getRate(1), 0);
+        assertEquals(0, objSecondary.intCalls.get());
+        assertEquals(0, objComposite.getHedgeCount());
+    }
+
+    public void testSlowPrimaryIsHedged() throws IOException
+    {
+        StubProvider          objPrimary   = new StubProvider(0.8, 20, false);
+        StubProvider          objSecondary = new StubProvider(0.9, 0, false);
+        CompositeRateProvider objComposite = new CompositeRateProvider(objPrimary, objSecondary, 95, objExecutor);
+
+        // teach the composite that the primary usually answers in about 20ms
+        for (int i = 0; i < 10; i++)
+        {
+            objComposite.fetch(CURRENCIES, PAIRS);
+        }
+
+        objPrimary.delay = 3000;
+
+        long         start       = System.nanoTime();
+        RateSnapshot objSnapshot = objComposite.fetch(CURRENCIES, PAIRS).build();
+        long         elapsed     = (System.nanoTime() - start) / 1000000;
+
+        assertEquals(0.9, objSnapshot.getRate(1), 0);
+        assertEquals(1, objComposite.getHedgeCount());
+        assertTrue("hedged fetch took " + elapsed + "ms", elapsed < 1000);
+    }
+
+    public void testFailedPrimaryFailsOver() throws IOException
+    {
+        StubProvider          objPrimary   = new StubProvider(0.8, 0, true);
+        StubProvider          objSecondary = new StubProvider(0.9, 0, false);
+        CompositeRateProvider objComposite = new CompositeRateProvider(objPrimary, objSecondary, 95, objExecutor);
+
+        RateSnapshot objSnapshot = objComposite.fetch(CURRENCIES, PAIRS).build();
+
+        assertEquals(0.9, objSnapshot.getRate(1), 0);
+        assertEquals(1, objComposite.getFailoverCount());
+    }
+
+    public void testBothFailingThrows()
+    {
+        CompositeRateProvider objComposite = new CompositeRateProvider(
+            new StubProvider(0.8, 0, true), new StubProvider(0.9, 0, true), 95, objExecutor);
+
+        try
+        {
+            objComposite.fetch(CURRENCIES, PAIRS);
+            fail("expected an IOException");
+        }
+        catch (IOException e)
+        {
+            assertEquals("stub failure", e.getMessage());
+        }
+    }
+
+    /**
+     * A provider answering one fixed rate after an injected delay, or failing
+     */
+    private static class StubProvider implements RateProvider
+    {
+        final AtomicInteger intCalls = new AtomicInteger();
+        final double        rate;
+        final boolean       failing;
+        volatile long       delay;
+
+        StubProvider(double rate, long delay, boolean failing)
+        {
+            this.rate    = rate;
+            this.delay   = delay;
+            this.failing = failing;
+        }
+
+        @Override
+        public RateSnapshot.Builder fetch(String[] aryCurrencies, int[] aryPairs) throws IOException
+        {
+            intCalls.incrementAndGet();
+
+            try
+            {
+                Thread.sleep(delay);
+            }
+            catch (InterruptedException e)
+            {
+                throw new IOException("interrupted");
+            }
+
+            if (failing)
+            {
+                throw new IOException("stub failure");
+            }
+
+            return new RateSnapshot.Builder(aryCurrencies).put(0, 1, rate, rate, rate, QuoteTime.UNKNOWN);
+        }
+    }
+}
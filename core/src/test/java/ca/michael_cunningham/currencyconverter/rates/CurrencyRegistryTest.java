@@ -0,0 +1,90 @@
+package ca.michael_cunningham.currencyconverter.rates;
+
+import junit.framework.TestCase;
+import java.util.Currency;
+import java.util.Set;
+
+/**
+ * Looks codes and pair ids up in the CurrencyRegistry, against the position in the currency table
+ */
+public class CurrencyRegistryTest extends TestCase
+{
+    private static final String[] CURRENCIES = { "USD", "AUD", "GBP", "JPY", "CAD", "EUR", "CHF" };
+
+    public void testIdsAreTablePositions()
+    {
+        CurrencyRegistry objRegistry = new CurrencyRegistry(CURRENCIES);
+
+        assertEquals(CURRENCIES.length, objRegistry.getCount());
+
+        for (int id = 0; id < CURRENCIES.length; id++)
+        {
+            assertEquals(id, objRegistry.getId(CURRENCIES[id]));
+            assertEquals(CURRENCIES[id], objRegistry.getCode(id));
+        }
+
+        assertEquals(5, objRegistry.getId("eur"));
+        assertEquals(CurrencyRegistry.NO_ID, objRegistry.getId("NZD"));
+        assertEquals(CurrencyRegistry.NO_ID, objRegistry.getId("US"));
+        assertEquals(CurrencyRegistry.NO_ID, objRegistry.getId("U$D"));
+        assertEquals(CurrencyRegistry.NO_ID, objRegistry.getId(null));
+    }
+
+    public void testPairIds()
+    {
+        CurrencyRegistry objRegistry = new CurrencyRegistry(CURRENCIES);
+        int              pair        = objRegistry.getPair("JPYCHF");
+
+        assertEquals((3 * CURRENCIES.length) + 6, pair);
+        assertEquals(3, objRegistry.getFrom(pair));
+        assertEquals(6, objRegistry.getTo(pair));
+        assertEquals(pair, objRegistry.getPair(3, 6));
+        assertEquals(pair, objRegistry.getPair(new StringBuilder("jpychf")));
+        assertEquals(RateSnapshot.NO_PAIR, objRegistry.getPair("JPYNZD"));
+        assertEquals(RateSnapshot.NO_PAIR, objRegistry.getPair("JPYCH"));
+        assertEquals(RateSnapshot.NO_PAIR, objRegistry.getPair(7, 0));
+    }
+
+    public void testEveryIsoCode()
+    {
+        Set<Currency> setCurrencies = Currency.getAvailableCurrencies();
+        String[]      aryCodes      = new String[setCurrencies.size()];
+        int           count         = 0;
+
+        for (Currency objCurrency : setCurrencies)
+        {
+            aryCodes[count++] = objCurrency.getCurrencyCode();
+        }
+
+        CurrencyRegistry objRegistry = new CurrencyRegistry(aryCodes);
+
+        for (int from = 0; from < count; from++)
+        {
+            assertEquals(from, objRegistry.getId(aryCodes[from]));
+            assertEquals((from * count) + (count - 1 - from), objRegistry.getPair(aryCodes[from] + aryCodes[count - 1 - from]));
+        }
+    }
+
+    public void testInvalidTablesThrow()
+    {
+        try
+        {
+            new CurrencyRegistry(new String[] { "USD", "EUR", "USD" });
+            fail("expected an IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e)
+        {
+            assertEquals("Duplicate currency code USD", e.getMessage());
+        }
+
+        try
+        {
+            new CurrencyRegistry(new String[] { "USD", "EURO" });
+            fail("expected an IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e)
+        {
+            assertEquals("Not a currency code EURO", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package ca.michael_cunningham.currencyconverter.rates;
+
+import junit.framework.TestCase;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Appends, queries, compacts and reopens a RateHistory, against the rates that were appended
+ */
+public class RateHistoryTest extends TestCase
+{
+    private static final String[] CURRENCIES = { "USD", "EUR", "JPY", "GBP" };
+    private static final int      PAIRS      = CURRENCIES.length * CURRENCIES.length;
+    private static final long     MINUTE_MS  = 60 * 1000L;
+    private static final long     DAY_MS     = 24 * 60 * MINUTE_MS;
+    private static final long     START      = 20000 * DAY_MS;
+    private static final long     NO_LIMIT   = Long.MAX_VALUE / 100;
+
+    private File        objFile;
+    private RateHistory objHistory;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+
+        objFile = File.createTempFile("history", ".rates");
+        objFile.delete();
+    }
+
+    @Override
+    protected void tearDown() throws Exception
+    {
+        if (objHistory != null)
+        {
+            objHistory.close();
+        }
+
+        objFile.delete();
+        new File(objFile.getPath() + ".tmp").delete();
+
+        super.tearDown();
+    }
+
+    public void testQueriesAcrossKeyframes() throws IOException
+    {
+        // well past the 64 groups between keyframes, with only some pairs changing each time
+        double[][] aryModel = appendAll(open(NO_LIMIT, DAY_MS), 300, MINUTE_MS);
+
+        assertQueries(aryModel, 0, MINUTE_MS);
+        assertTrue(Double.isNaN(objHistory.getRateAt(1, START - 1)));
+        assertEquals(1.0, objHistory.getRateAt(5, START - 1));
+        assertTrue(Double.isNaN(objHistory.getRateAt(PAIRS, START)));
+
+        long[]   aryTimes = new long[400];
+        double[] aryRates = new double[400];
+        int      points   = objHistory.getSeries(1, START + (10 * MINUTE_MS) + 1, START + (250 * MINUTE_MS), aryTimes, aryRates);
+
+        // the first point is the rate at the start, then one point per change of pair 1, every other append
+        assertEquals(START + (10 * MINUTE_MS) + 1, aryTimes[0]);
+        assertEquals(aryModel[10][1], aryRates[0]);
+        assertEquals(1 + 120, points);
+
+        for (int point = 1; point < points; point++)
+        {
+            int append = 10 + (point * 2);
+
+            assertEquals(START + (append * MINUTE_MS), aryTimes[point]);
+            assertEquals(aryModel[append][1], aryRates[point]);
+        }
+    }
+
+    public void testReopenKeepsAnswers() throws IOException
+    {
+        double[][] aryModel = appendAll(open(NO_LIMIT, DAY_MS), 150, MINUTE_MS);
+        long       size     = objHistory.getSize();
+
+        objHistory.close();
+
+        assertEquals(size, open(NO_LIMIT, DAY_MS).getSize());
+        assertQueries(aryModel, 0, MINUTE_MS);
+
+        // the last rates were rebuilt from the file, so the same snapshot again adds nothing
+        assertFalse(objHistory.append(newSnapshot(aryModel[149]), START + (150 * MINUTE_MS)));
+    }
+
+    public void testCompactKeepsTheWindow() throws IOException
+    {
+        // three days a minute apart, only the last day inside the window
+        int        appends  = 3 * 24 * 60;
+        long       now      = START + ((appends - 1) * MINUTE_MS);
+        double[][] aryModel = appendAll(open(NO_LIMIT, DAY_MS), appends, MINUTE_MS);
+        long       size     = objHistory.getSize();
+
+        objHistory.compact(now);
+
+        assertTrue(objHistory.getSize() < size);
+
+        // inside the window every answer is as it was, before it the rate each day ended on
+        assertQueries(aryModel, 2 * 24 * 60, MINUTE_MS);
+
+        for (int day = 0; day < 2; day++)
+        {
+            int last = (((day + 1) * 24 * 60) - 1);
+
+            for (int pair = 0; pair < PAIRS; pair++)
+            {
+                assertEquals(aryModel[last][pair], objHistory.getRateAt(pair, START + (last * MINUTE_MS)));
+            }
+        }
+
+        objHistory.close();
+        open(NO_LIMIT, DAY_MS);
+
+        assertQueries(aryModel, 2 * 24 * 60, MINUTE_MS);
+    }
+
+    public void testSizeStaysWithinBudget() throws IOException
+    {
+        long        budget      = 32 * 1024;
+        RateHistory objBudgeted = open(budget, DAY_MS);
+        double[]    aryRates    = new double[PAIRS];
+        long        previous    = 0;
+        int         compactions = 0;
+
+        for (int append = 0; append < 5000; append++)
+        {
+            long time = START + (append * MINUTE_MS);
+
+            // every pair moves on every append, the worst case for the budget
+            for (int pair = 0; pair < PAIRS; pair++)
+            {
+                aryRates[pair] = isIdentity(pair) ? 1 : (pair + (append / 1000.0));
+            }
+
+            assertTrue(objBudgeted.append(newSnapshot(aryRates), time));
+            assertTrue(objBudgeted.getSize() <= budget);
+
+            for (int pair = 0; pair < PAIRS; pair++)
+            {
+                assertEquals(aryRates[pair], objBudgeted.getRateAt(pair, time));
+            }
+
+            if (objBudgeted.getSize() < previous)
+            {
+                compactions++;
+            }
+
+            previous = objBudgeted.getSize();
+        }
+
+        // compacted down to a low-water mark, not on every append past the budget
+        assertTrue("compacted " + compactions + " times", (compactions > 0) && (compactions < (5000 / 20)));
+
+        objBudgeted.close();
+
+        assertTrue(open(budget, DAY_MS).getSize() <= budget);
+        assertEquals(aryRates[1], objHistory.getRateAt(1, START + (4999 * MINUTE_MS)));
+    }
+
+    /**
+     * Opens a history over the test file
+     *
+     * @param lngMaxBytes  - the size past which it is compacted
+     * @param lngRetention - how long it is kept at full resolution
+     * @return             - the history
+     * @throws IOException - if the file could not be opened
+     */
+    private RateHistory open(long lngMaxBytes, long lngRetention) throws IOException
+    {
+        objHistory = new RateHistory(objFile, CURRENCIES, lngMaxBytes, lngRetention);
+        objHistory.open();
+
+        return objHistory;
+    }
+
+    /**
+     * Appends snapshots at a fixed step, pair p moving on every (p + 1)th append
+     *
+     * @param objTarget - the history
+     * @param appends   - the number of snapshots
+     * @param step      - milliseconds between them
+     * @return          - the rates of every pair after each append
+     * @throws IOException - if the history could not be grown
+     */
+    private static double[][] appendAll(RateHistory objTarget, int appends, long step) throws IOException
+    {
+        double[][] aryModel = new double[appends][PAIRS];
+
+        for (int append = 0; append < appends; append++)
+        {
+            for (int pair = 0; pair < PAIRS; pair++)
+            {
+                if (isIdentity(pair))
+                {
+                    aryModel[append][pair] = 1;
+                }
+                else if ((append == 0) || ((append % (pair + 1)) == 0))
+                {
+                    aryModel[append][pair] = pair + (append / 1000.0);
+                }
+                else
+                {
+                    aryModel[append][pair] = aryModel[append - 1][pair];
+                }
+            }
+
+            objTarget.append(newSnapshot(aryModel[append]), START + (append * step));
+        }
+
+        return aryModel;
+    }
+
+    /**
+     * Asserts the rate of every pair at, and between, every append from the first given on
+     *
+     * @param aryModel - the rates of every pair after each append
+     * @param first    - the first append to check
+     * @param step     - milliseconds between the appends
+     */
+    private void assertQueries(double[][] aryModel, int first, long step)
+    {
+        for (int append = first; append < aryModel.length; append++)
+        {
+            long time = START + (append * step);
+
+            for (int pair = 0; pair < PAIRS; pair++)
+            {
+                assertEquals(aryModel[append][pair], objHistory.getRateAt(pair, time));
+                assertEquals(aryModel[append][pair], objHistory.getRateAt(pair, time + (step / 2)));
+            }
+        }
+    }
+
+    /**
+     * Get whether a pair converts a currency to itself
+     *
+     * @param pair - the pair index
+     * @return     - true/false if the pair is an identity pair
+     */
+    private static boolean isIdentity(int pair)
+    {
+        return (pair / CURRENCIES.length) == (pair % CURRENCIES.length);
+    }
+
+    /**
+     * Get a snapshot holding the given rates
+     *
+     * @param aryRates - the rate of every pair
+     * @return         - the snapshot
+     */
+    private static RateSnapshot newSnapshot(double[] aryRates)
+    {
+        RateSnapshot.Builder objBuilder = new RateSnapshot.Builder(CURRENCIES);
+
+        for (int pair = 0; pair < PAIRS; pair++)
+        {
+            if (!isIdentity(pair))
+            {
+                objBuilder.put(pair / CURRENCIES.length, pair % CURRENCIES.length, aryRates[pair], aryRates[pair], aryRates[pair], 0);
+            }
+        }
+
+        return objBuilder.build();
+    }
+}
@@ -0,0 +1,205 @@
+package ca.michael_cunningham.currencyconverter.rates;
+
+import junit.framework.TestCase;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Stresses the RateStore with writers and readers racing on the published state
+ */
+public class RateStoreTest extends TestCase
+{
+    private static final String[] CURRENCIES = { "USD", "EUR", "JPY", "GBP" };
+    private static final int      REFRESHES  = 20000;
+    private static final int      READERS    = 4;
+
+    public void testReadersOnlySeeWholeRefreshes() throws InterruptedException
+    {
+        final RateStore               objStore   = new RateStore();
+        final AtomicBoolean           isDone     = new AtomicBoolean();
+        final AtomicReference<String> strFailure = new AtomicReference<String>();
+        final CountDownLatch          objStarted = new CountDownLatch(READERS);
+        Thread[]                      aryReaders = new Thread[READERS];
+
+        for (int i = 0; i < READERS; i++)
+        {
+            aryReaders[i] = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    long lngLastSeen = 0;
+
+                    objStarted.countDown();
+
+                    while (!isDone.get() && (strFailure.get() == null))
+                    {
+                        RateStore.State objState = objStore.get();
+                        String          strError = getInconsistency(objState, lngLastSeen);
+
+                        if (strError != null)
+                        {
+                            strFailure.compareAndSet(null, strError);
+                        }
+                        else if (objState.getSnapshot() != null)
+                        {
+                            lngLastSeen = objState.getSnapshot().getCreated();
+                        }
+                    }
+                }
+            });
+            aryReaders[i].start();
+        }
+
+        objStarted.await();
+
+        for (int refresh = 1; refresh <= REFRESHES; refresh++)
+        {
+            objStore.publish(newSnapshot(refresh), String.valueOf(refresh), refresh);
+        }
+
+        isDone.set(true);
+
+        for (Thread objReader : aryReaders)
+        {
+            objReader.join();
+        }
+
+        assertNull(strFailure.get(), strFailure.get());
+        assertEquals(REFRESHES, objStore.get().getSnapshot().getCreated());
+    }
+
+    public void testConcurrentWritersLoseNoSnapshot() throws InterruptedException
+    {
+        final RateStore     objStore = new RateStore();
+        final AtomicBoolean isDone   = new AtomicBoolean();
+
+        // the other writers only ever change the text and the outcome, never the snapshot
+        Thread objTextWriter = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                while (!isDone.get())
+                {
+                    objStore.setLastRefreshed("saved");
+                    objStore.publishFailed();
+                    objStore.publishNotModified("not modified");
+                }
+            }
+        });
+
+        objTextWriter.start();
+
+        for (int refresh = 1; refresh <= REFRESHES; refresh++)
+        {
+            objStore.publish(newSnapshot(refresh), String.valueOf(refresh), refresh);
+
+            RateStore.State objState = objStore.get();
+
+            // a racing writer may have replaced the text, but it must have kept this snapshot
+            assertEquals(refresh, objState.getSnapshot().getCreated());
+            assertSame(objState.getSnapshot(), objState.getConverter().getSnapshot());
+        }
+
+        isDone.set(true);
+        objTextWriter.join();
+
+        assertEquals(REFRESHES, objStore.get().getSnapshot().getCreated());
+    }
+
+    public void testCachedSnapshotNeverReplacesARefresh() throws InterruptedException
+    {
+        for (int round = 0; round < 500; round++)
+        {
+            final RateStore      objStore   = new RateStore();
+            final RateSnapshot   objCached  = newSnapshot(1);
+            final CountDownLatch objStarted = new CountDownLatch(1);
+
+            Thread objLoader = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    objStarted.countDown();
+                    objStore.publishIfEmpty(objCached);
+                }
+            });
+
+            objLoader.start();
+            objStarted.await();
+            objStore.publish(newSnapshot(2), "2", 0);
+            objLoader.join();
+
+            // whichever ran first, the refresh is the one left standing
+            assertEquals(2, objStore.get().getSnapshot().getCreated());
+            assertFalse(objStore.publishIfEmpty(objCached));
+        }
+    }
+
+    /**
+     * Get a snapshot whose every rate, quote time and created time is the refresh number
+     *
+     * @param refresh - the refresh number, from 1
+     * @return        - the snapshot
+     */
+    private static RateSnapshot newSnapshot(int refresh)
+    {
+        RateSnapshot.Builder objBuilder = new RateSnapshot.Builder(CURRENCIES);
+
+        for (int from = 0; from < CURRENCIES.length; from++)
+        {
+            for (int to = 0; to < CURRENCIES.length; to++)
+            {
+                objBuilder.put(from, to, refresh, refresh, refresh, refresh);
+            }
+        }
+
+        return objBuilder.setCreated(refresh).build();
+    }
+
+    /**
+     * Get what, if anything, in a state does not belong to the one refresh
+     *
+     * @param objState    - the state read
+     * @param lngLastSeen - the refresh the reader saw before
+     * @return            - the inconsistency, or null if the state is whole
+     */
+    private static String getInconsistency(RateStore.State objState, long lngLastSeen)
+    {
+        RateSnapshot objSnapshot = objState.getSnapshot();
+
+        if (objSnapshot == null)
+        {
+            return (lngLastSeen == 0) ? null : "the snapshot went back to null";
+        }
+
+        long refresh = objSnapshot.getCreated();
+
+        if (refresh < lngLastSeen)
+        {
+            return "refresh " + refresh + " was seen after " + lngLastSeen;
+        }
+
+        if (objState.getConverter().getSnapshot() != objSnapshot)
+        {
+            return "the converter of refresh " + refresh + " belongs to another snapshot";
+        }
+
+        if (!String.valueOf(refresh).equals(objState.getLastRefreshed()) || (objState.getLastMove() != refresh))
+        {
+            return "refresh " + refresh + " was shown as " + objState.getLastRefreshed();
+        }
+
+        for (int pair = 0; pair < (CURRENCIES.length * CURRENCIES.length); pair++)
+        {
+            if (objSnapshot.getRate(pair) != refresh)
+            {
+                return "refresh " + refresh + " held a rate of " + objSnapshot.getRate(pair);
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,98 @@
+package ca.michael_cunningham.currencyconverter.rates;
+
+import junit.framework.TestCase;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32;
+
+/**
+ * Round-trips a RateSnapshot through the SnapshotCodec, and checks corrupt and older files
+ */
+public class SnapshotCodecTest extends TestCase
+{
+    private static final String[] CURRENCIES = { "USD", "EUR", "JPY" };
+    private static final int      PAIRS      = CURRENCIES.length * CURRENCIES.length;
+
+    private RateSnapshot objSnapshot;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+
+        RateSnapshot.Builder objBuilder = new RateSnapshot.Builder(CURRENCIES);
+
+        objBuilder.put(0, 1, 0.9213, 0.9215, 0.9211, 1760000000000L);
+        objBuilder.put(0, 2, 149.8725, 149.875, 149.87, 1760000060000L);
+
+        objSnapshot = objBuilder.triangulate(0).setCreated(1760000120000L).build();
+    }
+
+    public void testRoundTrip()
+    {
+        RateSnapshot objDecoded = SnapshotCodec.decode(SnapshotCodec.encode(objSnapshot, 1760000180000L));
+
+        assertNotNull(objDecoded);
+        assertEquals(objSnapshot.getCount(), objDecoded.getCount());
+        assertEquals(objSnapshot.getCreated(), objDecoded.getCreated());
+
+        for (int i = 0; i < CURRENCIES.length; i++)
+        {
+            assertEquals(CURRENCIES[i], objDecoded.getCurrency(i));
+        }
+
+        for (int pair = 0; pair < PAIRS; pair++)
+        {
+            assertEquals(Double.doubleToLongBits(objSnapshot.getRate(pair)), Double.doubleToLongBits(objDecoded.getRate(pair)));
+            assertEquals(Double.doubleToLongBits(objSnapshot.getAsk(pair)), Double.doubleToLongBits(objDecoded.getAsk(pair)));
+            assertEquals(Double.doubleToLongBits(objSnapshot.getBid(pair)), Double.doubleToLongBits(objDecoded.getBid(pair)));
+            assertEquals(objSnapshot.getQuoteTime(pair), objDecoded.getQuoteTime(pair));
+            assertEquals(objSnapshot.getFetchedAt(pair), objDecoded.getFetchedAt(pair));
+        }
+    }
+
+    public void testFlippedByteFailsTheChecksum()
+    {
+        ByteBuffer objEncoded = SnapshotCodec.encode(objSnapshot, 1760000180000L);
+
+        // every byte but the checksum itself, header, currency table and columns alike
+        for (int offset = 0; offset < (objEncoded.limit() - 4); offset++)
+        {
+            ByteBuffer objCorrupt = ByteBuffer.wrap(objEncoded.array().clone());
+
+            objCorrupt.put(offset, (byte) (objCorrupt.get(offset) ^ 0x01));
+
+            assertNull("byte " + offset, SnapshotCodec.decode(objCorrupt));
+        }
+
+        assertNull(SnapshotCodec.decode(ByteBuffer.wrap(new byte[0])));
+        assertNotNull(SnapshotCodec.decode(objEncoded));
+    }
+
+    public void testVersion1IsReadAsNeverFetched()
+    {
+        ByteBuffer objEncoded = SnapshotCodec.encode(objSnapshot, 1760000180000L);
+
+        // version 1 is the same layout without the fetched column
+        int        length = objEncoded.limit() - 4 - (PAIRS * 8);
+        ByteBuffer objV1  = ByteBuffer.allocate(length + 4).order(ByteOrder.LITTLE_ENDIAN);
+        CRC32      objCrc = new CRC32();
+
+        objV1.put(objEncoded.array(), 0, length);
+        objV1.putShort(4, SnapshotCodec.VERSION_1);
+        objCrc.update(objV1.array(), 0, length);
+        objV1.putInt(length, (int) objCrc.getValue());
+        objV1.rewind();
+
+        RateSnapshot objDecoded = SnapshotCodec.decode(objV1);
+
+        assertNotNull(objDecoded);
+
+        for (int pair = 0; pair < PAIRS; pair++)
+        {
+            assertEquals(objSnapshot.getRate(pair), objDecoded.getRate(pair));
+            assertEquals(objSnapshot.getQuoteTime(pair), objDecoded.getQuoteTime(pair));
+            assertEquals(QuoteTime.UNKNOWN, objDecoded.getFetchedAt(pair));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package ca.michael_cunningham.currencyconverter.rates;
+
+import junit.framework.TestCase;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import ca.michael_cunningham.currencyconverter.interfaces.Transport;
+
+/**
+ * Parsing and revalidation of the YahooRateProvider over a local stub transport
+ */
+public class YahooRateProviderTest extends TestCase
+{
+    private static final String[] CURRENCIES = { "USD", "EUR", "JPY" };
+    private static final int[]    PAIRS      = { 1, 2 };
+
+    private static final String RESPONSE = "{\"query\":{\"count\":2,\"created\":\"2026-10-18T21:04:09Z\",\"results\":{\"rate\":["
+            + "{\"id\":\"USDEUR\",\"Rate\":\"0.9213\",\"Date\":\"10/18/2026\",\"Time\":\"9:04pm\",\"Ask\":\"0.9215\",\"Bid\":\"0.9211\"},"
+            + "{\"id\":\"USDJPY\",\"Rate\":\"149.8725\",\"Date\":\"10/18/2026\",\"Time\":\"9:04pm\",\"Ask\":\"N/A\",\"Bid\":\"149.8700\"},"
+            + "{\"id\":\"USDXXX\",\"Rate\":\"1.0\"}]}}}";
+
+    public void testFetchParsesResponse() throws IOException
+    {
+        StubTransport     objTransport = new StubTransport(200, RESPONSE);
+        YahooRateProvider objProvider  = new YahooRateProvider(objTransport);
+
+        RateSnapshot objSnapshot = objProvider.fetch(CURRENCIES, PAIRS).build();
+
+        assertEquals(0.9213, objSnapshot.getRate(1), 0);
+        assertEquals(149.8725, objSnapshot.getRate(2), 0);
+        assertTrue(Double.isNaN(objSnapshot.getAsk(2)));
+        assertTrue(objTransport.isClosed);
+    }
+
+    public void testSameQueryIsRevalidated() throws IOException
+    {
+        StubTransport     objTransport = new StubTransport(200, RESPONSE);
+        YahooRateProvider objProvider  = new YahooRateProvider(objTransport);
+
+        objProvider.fetch(CURRENCIES, PAIRS);
+        assertNull(objTransport.strLastETag);
+
+        objTransport.status = 304;
+        assertNull(objProvider.fetch(CURRENCIES, PAIRS));
+        assertEquals("\"v1\"", objTransport.strLastETag);
+        assertTrue(objTransport.isClosed);
+    }
+
+    public void testEmptyResponseFails()
+    {
+        YahooRateProvider objProvider = new YahooRateProvider(new StubTransport(200, "{\"query\":{\"count\":0,\"results\":null}}"));
+
+        try
+        {
+            objProvider.fetch(CURRENCIES, PAIRS);
+            fail("expected an IOException");
+        }
+        catch (IOException e)
+        {
+            // expected
+        }
+    }
+
+    public void testMalformedResponseFails()
+    {
+        YahooRateProvider objProvider = new YahooRateProvider(new StubTransport(200, "{\"query\":[1,"));
+
+        try
+        {
+            objProvider.fetch(CURRENCIES, PAIRS);
+            fail("expected an IOException");
+        }
+        catch (IOException e)
+        {
+            // expected
+        }
+    }
+
+    /**
+     * A transport answering every request with the same canned response
+     */
+    private static class StubTransport implements Transport
+    {
+        private volatile int     status;
+        private volatile String  strBody;
+        private volatile String  strLastETag;
+        private volatile boolean isClosed;
+
+        private StubTransport(int status, String strBody)
+        {
+            this.status  = status;
+            this.strBody = strBody;
+        }
+
+        @Override
+        public Transport.Response get(String url, String strETag, String strLastModified)
+        {
+            strLastETag = strETag;
+            isClosed    = false;
+
+            return new Transport.Response()
+            {
+                @Override
+                public int getStatusCode()
+                {
+                    return status;
+                }
+
+                @Override
+                public String getHeader(String strName)
+                {
+                    return strName.equals("ETag") ? "\"v1\"" : null;
+                }
+
+                @Override
+                public InputStream getContent() throws IOException
+                {
+                    return new ByteArrayInputStream(strBody.getBytes("UTF-8"));
+                }
+
+                @Override
+                public void close()
+                {
+                    isClosed = true;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package ca.michael_cunningham.currencyconverter.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * LoadGenerator
+ * ------------------------
+ *
+ * Sends requests to a RateServer at a fixed rate and prints the latency percentiles. The load is
+ * open loop, every request has a send time on a fixed schedule and its latency is counted from
+ * that time, not from when it actually went out, so a server that stalls shows up as the queue
+ * of late requests it really causes and is not hidden by the generator slowing down with it.
+ *
+ *   --url=http://host:8080 --rate=2000 --duration=10 --warmup=3 --batch-percent=10 --batch-size=20
+ *
+ * Without a url, a server over a StubRateProvider is started in the same process, refreshing
+ * every second so snapshots are swapped under the load.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public abstract class LoadGenerator
+{
+    // ------------------------------------------------------------------- private class constants
+    private static final int    DEFAULT_RATE          = 2000;
+    private static final int    DEFAULT_DURATION      = 10;
+    private static final int    DEFAULT_WARMUP        = 3;
+    private static final int    DEFAULT_BATCH_PERCENT = 10;
+    private static final int    DEFAULT_BATCH_SIZE    = 20;
+    private static final long   STUB_REFRESH_MS       = 1000;
+    private static final String MAX_CONNECTIONS       = "1000";
+
+    /**
+     * Runs the load and prints the results
+     *
+     * @param args                  - the options above, each one optional
+     * @throws IOException          - if the embedded server could not be started
+     * @throws InterruptedException - if interrupted while waiting on the requests
+     */
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        String strUrl       = null;
+        int    rate         = DEFAULT_RATE;
+        int    duration     = DEFAULT_DURATION;
+        int    warmup       = DEFAULT_WARMUP;
+        int    batchPercent = DEFAULT_BATCH_PERCENT;
+        int    batchSize    = DEFAULT_BATCH_SIZE;
+
+        for (String strArg : args)
+        {
+            String[] aryOption = strArg.split("=", 2);
+            String   strValue  = (aryOption.length == 2) ? aryOption[1] : "";
+
+            switch (aryOption[0])
+            {
+                case "--url":
+                    strUrl = strValue;
+                break;
+                case "--rate":
+                    rate = Integer.parseInt(strValue);
+                break;
+                case "--duration":
+                    duration = Integer.parseInt(strValue);
+                break;
+                case "--warmup":
+                    warmup = Integer.parseInt(strValue);
+                break;
+                case "--batch-percent":
+                    batchPercent = Integer.parseInt(strValue);
+                break;
+                case "--batch-size":
+                    batchSize = Integer.parseInt(strValue);
+                break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + strArg);
+            }
+        }
+
+        // the JDK keeps only 5 idle connections per host alive by default, far fewer than in flight
+        System.setProperty("http.maxConnections", MAX_CONNECTIONS);
+
+        RateServer objServer = null;
+
+        if (strUrl == null)
+        {
+            objServer = new RateServer(0, RateServer.DEFAULT_CURRENCIES, new StubRateProvider(0), STUB_REFRESH_MS, STUB_REFRESH_MS);
+            objServer.start();
+            strUrl = "http://127.0.0.1:" + objServer.getPort();
+        }
+
+        String[] aryConverts = getConverts(strUrl, RateServer.DEFAULT_CURRENCIES);
+        byte[]   aryBatch    = getBatch(RateServer.DEFAULT_CURRENCIES, batchSize);
+
+        System.out.println(String.format(Locale.US, "%d requests/s to %s, %d%% batches of %d, %ds warmup, %ds measured",
+                rate, strUrl, batchPercent, batchSize, warmup, duration));
+
+        run(strUrl, aryConverts, aryBatch, batchPercent, rate, warmup);
+
+        long   started      = System.nanoTime();
+        long[] aryLatencies = run(strUrl, aryConverts, aryBatch, batchPercent, rate, duration);
+
+        report(aryLatencies, (System.nanoTime() - started) / 1000000000.0);
+
+        if (objServer != null)
+        {
+            objServer.stop();
+        }
+    }
+
+    // ------------------------------------------------------------------- private methods
+    /**
+     * Sends requests on a fixed schedule, each one on a thread of its own, and waits for them all
+     *
+     * @param strUrl       - the base url of the server
+     * @param aryConverts  - the convert urls, cycled through
+     * @param aryBatch     - the body of a batch request
+     * @param batchPercent - the percentage of requests that are batches
+     * @param rate         - the requests per second
+     * @param duration     - the seconds to send for
+     * @return             - the latency of each request in nanoseconds, negative if it failed
+     * @throws InterruptedException - if interrupted while waiting on the requests
+     */
+    private static long[] run(final String strUrl, final String[] aryConverts, final byte[] aryBatch, final int batchPercent, int rate, int duration) throws InterruptedException
+    {
+        final int            total        = rate * duration;
+        final long[]         aryLatencies = new long[total];
+        final CountDownLatch objDone      = new CountDownLatch(total);
+        ExecutorService      objExecutor  = RateServer.newRequestExecutor("LoadGenerator");
+        long                 period       = 1000000000L / rate;
+        long                 start        = System.nanoTime();
+
+        for (int i = 0; i < total; i++)
+        {
+            final int  request  = i;
+            final long intended = start + (i * period);
+            long       wait     = intended - System.nanoTime();
+
+            while (wait > 0)
+            {
+                LockSupport.parkNanos(wait);
+                wait = intended - System.nanoTime();
+            }
+
+            objExecutor.execute(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    boolean isBatch = (request % 100) < batchPercent;
+                    boolean isOk    = send(isBatch ? (strUrl + "/batch") : aryConverts[request % aryConverts.length], isBatch ? aryBatch : null);
+                    long    latency = System.nanoTime() - intended;
+
+                    aryLatencies[request] = isOk ? latency : -latency;
+                    objDone.countDown();
+                }
+            });
+        }
+
+        objDone.await();
+        objExecutor.shutdown();
+
+        return aryLatencies;
+    }
+
+    /**
+     * Sends a single request and reads the whole response, so the connection goes back to the pool
+     *
+     * @param strUrl  - the url
+     * @param aryBody - the body to POST, or null to GET
+     * @return        - true/false if the server answered 200
+     */
+    private static boolean send(String strUrl, byte[] aryBody)
+    {
+        try
+        {
+            HttpURLConnection objConnection = (HttpURLConnection) new URL(strUrl).openConnection();
+
+            if (aryBody != null)
+            {
+                objConnection.setRequestMethod("POST");
+                objConnection.setDoOutput(true);
+                objConnection.setFixedLengthStreamingMode(aryBody.length);
+                objConnection.setRequestProperty("Content-Type", "application/json");
+
+                OutputStream outStream = objConnection.getOutputStream();
+
+                outStream.write(aryBody);
+                outStream.close();
+            }
+
+            int         status   = objConnection.getResponseCode();
+            InputStream inStream = (status >= 400) ? objConnection.getErrorStream() : objConnection.getInputStream();
+            byte[]      aryRead  = new byte[4096];
+
+            if (inStream != null)
+            {
+                while (inStream.read(aryRead) != -1)
+                {
+                    // keep reading until the whole body is read
+                }
+
+                inStream.close();
+            }
+
+            return status == 200;
+        }
+        catch (IOException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Prints the throughput, errors and latency percentiles of a run, a server that cannot keep up
+     * shows as a throughput under the rate asked for
+     *
+     * @param aryLatencies - the latency of each request in nanoseconds, negative if it failed
+     * @param seconds      - the seconds until the last request was answered
+     */
+    private static void report(long[] aryLatencies, double seconds)
+    {
+        long[] arySorted = new long[aryLatencies.length];
+        int    count     = 0;
+
+        for (long latency : aryLatencies)
+        {
+            if (latency >= 0)
+            {
+                arySorted[count++] = latency;
+            }
+        }
+
+        Arrays.sort(arySorted, 0, count);
+
+        System.out.println(String.format(Locale.US, "%d requests, %d failed, %.1f requests/s answered", aryLatencies.length,
+                aryLatencies.length - count, aryLatencies.length / seconds));
+        System.out.println(String.format(Locale.US, "%9s %9s %9s %9s %9s %9s", "ms", "p50", "p90", "p99", "p99.9", "max"));
+        System.out.println(String.format(Locale.US, "%9s %9.3f %9.3f %9.3f %9.3f %9.3f", "latency",
+                getPercentile(arySorted, count, 50), getPercentile(arySorted, count, 90), getPercentile(arySorted, count, 99),
+                getPercentile(arySorted, count, 99.9), getPercentile(arySorted, count, 100)));
+    }
+
+    /**
+     * Get a percentile of sorted latencies
+     *
+     * @param arySorted  - the latencies, sorted
+     * @param count      - the number of latencies
+     * @param percentile - the percentile, between 0 and 100
+     * @return           - the latency in milliseconds, or NaN if there are none
+     */
+    private static double getPercentile(long[] arySorted, int count, double percentile)
+    {
+        if (count == 0)
+        {
+            return Double.NaN;
+        }
+
+        int rank = (int) Math.ceil((percentile / 100) * count);
+
+        return arySorted[Math.max(0, rank - 1)] / 1000000.0;
+    }
+
+    /**
+     * Get a convert url for every pair of a currency table, with a varying amount
+     *
+     * @param strUrl        - the base url of the server
+     * @param aryCurrencies - the currency table
+     * @return              - the urls
+     */
+    private static String[] getConverts(String strUrl, String[] aryCurrencies)
+    {
+        int      count       = aryCurrencies.length;
+        String[] aryConverts = new String[count * count];
+
+        for (int pair = 0; pair < aryConverts.length; pair++)
+        {
+            aryConverts[pair] = strUrl + "/convert?from=" + aryCurrencies[pair / count] + "&to=" + aryCurrencies[pair % count]
+                    + "&amount=" + (pair * 37) + ".25";
+        }
+
+        return aryConverts;
+    }
+
+    /**
+     * Get the body of a batch request, cycling through the pairs of a currency table
+     *
+     * @param aryCurrencies - the currency table
+     * @param size          - the number of conversions
+     * @return              - the JSON body
+     */
+    private static byte[] getBatch(String[] aryCurrencies, int size)
+    {
+        int           count   = aryCurrencies.length;
+        StringBuilder strBody = new StringBuilder("[");
+
+        for (int i = 0; i < size; i++)
+        {
+            strBody.append((i == 0) ? "" : ",")
+                   .append("{\"from\":\"").append(aryCurrencies[(i / count) % count])
+                   .append("\",\"to\":\"").append(aryCurrencies[i % count])
+                   .append("\",\"amount\":\"").append(i * 11).append(".5\",\"side\":\"bid\"}");
+        }
+
+        try
+        {
+            return strBody.append("]").toString().getBytes("UTF-8");
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,876 @@
+package ca.michael_cunningham.currencyconverter.server;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import ca.michael_cunningham.currencyconverter.interfaces.RateProvider;
+import ca.michael_cunningham.currencyconverter.rates.AmountConverter;
+import ca.michael_cunningham.currencyconverter.rates.ChunkedRateProvider;
+import ca.michael_cunningham.currencyconverter.rates.CompositeRateProvider;
+import ca.michael_cunningham.currencyconverter.rates.CurrencyRegistry;
+import ca.michael_cunningham.currencyconverter.rates.RateSnapshot;
+import ca.michael_cunningham.currencyconverter.rates.YahooRateProvider;
+import ca.michael_cunningham.currencyconverter.tools.Metrics;
+import ca.michael_cunningham.currencyconverter.tools.UrlTransport;
+
+/**
+ * RateServer
+ * ------------------------
+ *
+ * Serves conversions from the core module as a local JSON/HTTP service. Every request runs on a
+ * thread of its own, a virtual thread on a JVM that has them, and reads the rates from an
+ * immutable snapshot that a refresh replaces as a whole. Requests never take a lock and never see
+ * a half refreshed table, however many of them are in flight.
+ *
+ *   GET  /convert?from=USD&to=EUR&amount=12.34&side=mid
+ *   POST /batch    [{"from":"USD","to":"EUR","amount":"12.34","side":"bid"}, ...]
+ *   GET  /metrics
+ *
+ * Amounts are decimal strings, or numbers, rounded to the minor units of their currency and
+ * converted in fixed-point, side is optional and one of mid, bid or ask.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public class RateServer
+{
+    // ------------------------------------------------------------------- public class constants
+    public static final String[] DEFAULT_CURRENCIES = { "USD", "AUD", "GBP", "JPY", "CAD", "EUR", "CHF" };
+    public static final int      DEFAULT_PORT       = 8080;
+    public static final long     DEFAULT_REFRESH_MS = 60 * 1000;
+    public static final long     DEFAULT_RETRY_MS   = 5 * 1000;
+
+    // ------------------------------------------------------------------- private class constants
+    private static final int    PIVOT_INDEX       = 0;
+    private static final int    BACKLOG           = 1024;
+    private static final int    MAX_BATCH         = 10000;
+    private static final int    MAX_AMOUNT_LENGTH = 40;
+    private static final int    MAX_AMOUNT_DIGITS = 19;
+    private static final int    MAX_BACKOFF_SHIFT = 16;
+    private static final double HEDGE_PERCENTILE  = 95;
+    private static final int    CHUNK_SIZE        = 50;
+    private static final int    CHUNK_PARALLELISM = 3;
+    private static final int    CHUNK_ATTEMPTS    = 3;
+    private static final String TYPE_JSON         = "application/json; charset=utf-8";
+    private static final String TYPE_TEXT         = "text/plain; charset=utf-8";
+
+    // ------------------------------------------------------------------- private global variables
+    private final String[]                 aryCurrencies;
+    private final CurrencyRegistry         objRegistry;
+    private final int[]                    aryRefreshPairs;
+    private final RateProvider             objProvider;
+    private final long                     lngRefreshInterval;
+    private final long                     lngRetryDelay;
+    private final ScheduledExecutorService objRefresher;
+    private final ExecutorService          objRequestExecutor;
+    private final HttpServer               objHttpServer;
+    private final Runnable                 runRefresh;
+    private volatile Rates                 objRates;
+    private int                            intFailures;
+
+    static
+    {
+        // the headers and the body go out in two writes, without this the body waits on the ACK of
+        // the headers, which the client delays by up to 40ms
+        if (System.getProperty("sun.net.httpserver.nodelay") == null)
+        {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    // ------------------------------------------------------------------- constructors
+    /**
+     * Constructs a new RateServer object, bound but not started
+     *
+     * @param port               - the port to listen on, or 0 for any free port
+     * @param aryCurrencies      - the currency table, the first currency is the pivot the others are
+     *                             fetched against
+     * @param objProvider        - the source of the rates
+     * @param lngRefreshInterval - the milliseconds between refreshes
+     * @param lngRetryDelay      - the milliseconds before retrying a failed refresh, doubled on every
+     *                             failure in a row up to the refresh interval
+     * @throws IOException       - if the port could not be bound
+     */
+    public RateServer(int port, String[] aryCurrencies, RateProvider objProvider, long lngRefreshInterval, long lngRetryDelay) throws IOException
+    {
+        int count = aryCurrencies.length;
+
+        this.aryCurrencies      = aryCurrencies.clone();
+        this.objRegistry        = new CurrencyRegistry(aryCurrencies);
+        this.aryRefreshPairs    = new int[count - 1];
+        this.objProvider        = objProvider;
+        this.lngRefreshInterval = lngRefreshInterval;
+        this.lngRetryDelay      = Math.min(lngRetryDelay, lngRefreshInterval);
+        this.objRefresher       = Executors.newSingleThreadScheduledExecutor(newThreadFactory("RateServer-refresh"));
+        this.objRequestExecutor = newRequestExecutor("RateServer-request");
+        this.objHttpServer      = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+
+        for (int i = 0; i < count; i++)
+        {
+            // only the pivot's row is fetched, the cross rates are triangulated from it
+            if (i != PIVOT_INDEX)
+            {
+                aryRefreshPairs[(i < PIVOT_INDEX) ? i : (i - 1)] = (PIVOT_INDEX * count) + i;
+            }
+        }
+
+        this.runRefresh = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                refresh();
+            }
+        };
+
+        objHttpServer.createContext("/convert", new HttpHandler()
+        {
+            @Override
+            public void handle(HttpExchange objExchange) throws IOException
+            {
+                onConvert(objExchange);
+            }
+        });
+        objHttpServer.createContext("/batch", new HttpHandler()
+        {
+            @Override
+            public void handle(HttpExchange objExchange) throws IOException
+            {
+                onBatch(objExchange);
+            }
+        });
+        objHttpServer.createContext("/metrics", new HttpHandler()
+        {
+            @Override
+            public void handle(HttpExchange objExchange) throws IOException
+            {
+                onMetrics(objExchange);
+            }
+        });
+        objHttpServer.setExecutor(objRequestExecutor);
+    }
+
+    // ------------------------------------------------------------------- get methods
+    /**
+     * Get the port the server is listening on
+     *
+     * @return - the port
+     */
+    public int getPort()
+    {
+        return objHttpServer.getAddress().getPort();
+    }
+
+    /**
+     * Get the snapshot the server is converting with
+     *
+     * @return - the snapshot, or null until the first refresh has succeeded
+     */
+    public RateSnapshot getSnapshot()
+    {
+        Rates objCurrent = objRates;
+
+        return (objCurrent == null) ? null : objCurrent.objSnapshot;
+    }
+
+    // ------------------------------------------------------------------- public methods
+    /**
+     * Refreshes the rates once, then starts serving, requests get a 503 until a refresh succeeds
+     *
+     * @throws InterruptedException - if interrupted while waiting on the first refresh
+     */
+    public void start() throws InterruptedException
+    {
+        try
+        {
+            objRefresher.submit(runRefresh).get();
+        }
+        catch (ExecutionException e)
+        {
+            e.printStackTrace();
+        }
+
+        objHttpServer.start();
+    }
+
+    /**
+     * Stops serving, waiting up to a second for the requests in flight
+     */
+    public void stop()
+    {
+        objHttpServer.stop(1);
+        objRefresher.shutdownNow();
+        objRequestExecutor.shutdown();
+    }
+
+    /**
+     * Runs the server until the process is killed
+     *
+     *   --port=8080 --refresh-ms=60000 --retry-ms=5000 --source=yahoo|stub --currencies=USD,EUR,...
+     *
+     * @param args                  - the options above, each one optional
+     * @throws IOException          - if the port could not be bound
+     * @throws InterruptedException - if interrupted while waiting on the first refresh
+     */
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        int      port          = DEFAULT_PORT;
+        long     refresh       = DEFAULT_REFRESH_MS;
+        long     retry         = DEFAULT_RETRY_MS;
+        String   strSource     = "yahoo";
+        String[] aryCurrencies = DEFAULT_CURRENCIES;
+
+        for (String strArg : args)
+        {
+            String[] aryOption = strArg.split("=", 2);
+            String   strValue  = (aryOption.length == 2) ? aryOption[1] : "";
+
+            switch (aryOption[0])
+            {
+                case "--port":
+                    port = Integer.parseInt(strValue);
+                break;
+                case "--refresh-ms":
+                    refresh = Long.parseLong(strValue);
+                break;
+                case "--retry-ms":
+                    retry = Long.parseLong(strValue);
+                break;
+                case "--source":
+                    strSource = strValue;
+                break;
+                case "--currencies":
+                    aryCurrencies = strValue.split(",");
+                break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + strArg);
+            }
+        }
+
+        final RateServer objServer = new RateServer(port, aryCurrencies, newProvider(strSource), refresh, retry);
+
+        Runtime.getRuntime().addShutdownHook(new Thread()
+        {
+            @Override
+            public void run()
+            {
+                objServer.stop();
+            }
+        });
+
+        objServer.start();
+        System.out.println("Serving " + aryCurrencies.length + " currencies from " + strSource + " on port " + objServer.getPort());
+    }
+
+    /**
+     * Builds an executor running every task on a new virtual thread, on a JVM that has them (21+),
+     * otherwise a cached pool of daemon threads, a thread per request in flight either way
+     *
+     * @param strName - the name of the threads of the fallback pool
+     * @return        - the executor
+     */
+    static ExecutorService newRequestExecutor(String strName)
+    {
+        try
+        {
+            // looked up by reflection, the module still targets the JVMs the app does
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            return Executors.newCachedThreadPool(newThreadFactory(strName));
+        }
+    }
+
+    // ------------------------------------------------------------------- protected event handlers
+    /**
+     * Event handler called on GET /convert, converts a single amount
+     *
+     * @param objExchange  - the request and response
+     * @throws IOException - if the response could not be sent
+     */
+    protected void onConvert(HttpExchange objExchange) throws IOException
+    {
+        long started = Metrics.start();
+
+        try
+        {
+            Rates objCurrent = getRates(objExchange, "GET");
+
+            if (objCurrent == null)
+            {
+                return;
+            }
+
+            HashMap<String, String> mapQuery = getQuery(objExchange.getRequestURI().getRawQuery());
+            StringWriter            outBody  = new StringWriter();
+            JsonWriter              outJson  = new JsonWriter(outBody);
+
+            try
+            {
+                writeConversion(outJson, objCurrent, mapQuery.get("from"), mapQuery.get("to"), mapQuery.get("amount"), mapQuery.get("side"), false);
+                send(objExchange, 200, TYPE_JSON, outBody.toString());
+            }
+            catch (IllegalArgumentException e)
+            {
+                sendError(objExchange, 400, e.getMessage());
+            }
+        }
+        finally
+        {
+            objExchange.close();
+            Metrics.record(Metrics.TIMER_CONVERT, started);
+        }
+    }
+
+    /**
+     * Event handler called on POST /batch, converts every amount of the body with the same snapshot,
+     * a line that cannot be converted gets an error of its own and does not fail the batch
+     *
+     * @param objExchange  - the request and response
+     * @throws IOException - if the response could not be sent
+     */
+    protected void onBatch(HttpExchange objExchange) throws IOException
+    {
+        long started = Metrics.start();
+
+        try
+        {
+            Rates objCurrent = getRates(objExchange, "POST");
+
+            if (objCurrent == null)
+            {
+                return;
+            }
+
+            ArrayList<HashMap<String, String>> lstLines = new ArrayList<HashMap<String, String>>();
+
+            try
+            {
+                readBatch(objExchange.getRequestBody(), lstLines);
+            }
+            catch (IllegalStateException e)
+            {
+                // the body is valid JSON, but not an array of objects
+                sendError(objExchange, 400, "Expected an array of conversions");
+                return;
+            }
+            catch (IllegalArgumentException e)
+            {
+                sendError(objExchange, 400, e.getMessage());
+                return;
+            }
+            catch (IOException e)
+            {
+                sendError(objExchange, 400, "Malformed JSON");
+                return;
+            }
+
+            StringWriter outBody = new StringWriter();
+            JsonWriter   outJson = new JsonWriter(outBody);
+
+            outJson.beginObject();
+            outJson.name("refreshed").value(objCurrent.lngRefreshedAt);
+            outJson.name("results").beginArray();
+
+            for (HashMap<String, String> mapLine : lstLines)
+            {
+                writeConversion(outJson, objCurrent, mapLine.get("from"), mapLine.get("to"), mapLine.get("amount"), mapLine.get("side"), true);
+            }
+
+            outJson.endArray();
+            outJson.endObject();
+            outJson.flush();
+
+            send(objExchange, 200, TYPE_JSON, outBody.toString());
+        }
+        finally
+        {
+            objExchange.close();
+            Metrics.record(Metrics.TIMER_CONVERT, started);
+        }
+    }
+
+    /**
+     * Event handler called on GET /metrics, the server's counters and timers as a plain text table
+     *
+     * @param objExchange  - the request and response
+     * @throws IOException - if the response could not be sent
+     */
+    protected void onMetrics(HttpExchange objExchange) throws IOException
+    {
+        try
+        {
+            send(objExchange, 200, TYPE_TEXT, Metrics.dump());
+        }
+        finally
+        {
+            objExchange.close();
+        }
+    }
+
+    // ------------------------------------------------------------------- private methods
+    /**
+     * Fetches the pivot's row and publishes a new snapshot, the quotes the refresh did not get are
+     * carried over from the current one, then schedules the next refresh. A failed refresh keeps
+     * the current snapshot in service and is retried sooner. Only ever runs on the refresh thread.
+     */
+    private void refresh()
+    {
+        long started = Metrics.start();
+        long delay   = lngRefreshInterval;
+
+        try
+        {
+            RateSnapshot.Builder objBuilder = objProvider.fetch(aryCurrencies, aryRefreshPairs);
+            Rates                objCurrent = objRates;
+
+            if (objBuilder == null)
+            {
+                Metrics.increment(Metrics.COUNTER_NOT_MODIFIED);
+            }
+            else
+            {
+                RateSnapshot objSnapshot = objBuilder.merge((objCurrent == null) ? null : objCurrent.objSnapshot, aryRefreshPairs)
+                                                     .triangulate(PIVOT_INDEX)
+                                                     .build();
+
+                objRates = new Rates(objSnapshot, System.currentTimeMillis());
+                Metrics.increment(Metrics.COUNTER_REFRESH);
+            }
+
+            Metrics.record(Metrics.TIMER_REFRESH, started);
+            intFailures = 0;
+        }
+        catch (IOException e)
+        {
+            Metrics.increment(Metrics.COUNTER_REFRESH_FAILED);
+            System.err.println("Refresh failed: " + e.getMessage());
+
+            delay = Math.min(lngRefreshInterval, lngRetryDelay << Math.min(intFailures++, MAX_BACKOFF_SHIFT));
+        }
+        finally
+        {
+            if (!objRefresher.isShutdown())
+            {
+                objRefresher.schedule(runRefresh, delay, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Get the rates to answer a request with, sending the error response if it cannot be answered
+     *
+     * @param objExchange  - the request and response
+     * @param strMethod    - the method the endpoint accepts
+     * @return             - the rates, or null if an error response was sent
+     * @throws IOException - if the error response could not be sent
+     */
+    private Rates getRates(HttpExchange objExchange, String strMethod) throws IOException
+    {
+        // a single read of the volatile, the whole request then works on the same snapshot
+        Rates objCurrent = objRates;
+
+        if (!objExchange.getRequestMethod().equals(strMethod))
+        {
+            objExchange.getResponseHeaders().set("Allow", strMethod);
+            sendError(objExchange, 405, "Use " + strMethod);
+
+            return null;
+        }
+
+        if (objCurrent == null)
+        {
+            sendError(objExchange, 503, "No rates yet");
+
+            return null;
+        }
+
+        return objCurrent;
+    }
+
+    /**
+     * Reads the conversions of a batch, every string or number field of each one
+     *
+     * @param inStream     - the request body, a JSON array of objects
+     * @param lstLines     - receives the fields of each conversion
+     * @throws IOException - if the body could not be read or is not valid JSON
+     */
+    private static void readBatch(InputStream inStream, ArrayList<HashMap<String, String>> lstLines) throws IOException
+    {
+        JsonReader inJson = new JsonReader(new InputStreamReader(inStream, "UTF-8"));
+
+        inJson.beginArray();
+
+        while (inJson.hasNext())
+        {
+            if (lstLines.size() == MAX_BATCH)
+            {
+                throw new IllegalArgumentException("A batch holds at most " + MAX_BATCH + " conversions");
+            }
+
+            HashMap<String, String> mapLine = new HashMap<String, String>();
+
+            inJson.beginObject();
+
+            while (inJson.hasNext())
+            {
+                String strName = inJson.nextName();
+
+                if ((inJson.peek() == JsonToken.STRING) || (inJson.peek() == JsonToken.NUMBER))
+                {
+                    mapLine.put(strName, inJson.nextString());
+                }
+                else
+                {
+                    inJson.skipValue();
+                }
+            }
+
+            inJson.endObject();
+            lstLines.add(mapLine);
+        }
+
+        inJson.endArray();
+    }
+
+    /**
+     * Converts an amount and writes the result as a JSON object
+     *
+     * @param outJson    - the writer to write the object to
+     * @param objCurrent - the rates to convert with
+     * @param strFrom    - the currency code the amount is in
+     * @param strTo      - the currency code to convert to
+     * @param strAmount  - the amount, as a decimal string
+     * @param strSide    - mid, bid, ask or null for mid
+     * @param isInline   - true to write an error into the object, false to throw it
+     * @throws IOException - if the object could not be written
+     */
+    private void writeConversion(JsonWriter outJson, Rates objCurrent, String strFrom, String strTo, String strAmount, String strSide, boolean isInline) throws IOException
+    {
+        String strResult = null;
+        String strError  = null;
+        double rate      = Double.NaN;
+
+        try
+        {
+            int          from        = getIndex(strFrom);
+            int          to          = getIndex(strTo);
+            byte         side        = getSide(strSide);
+            RateSnapshot objSnapshot = objCurrent.objSnapshot;
+            int          pair        = objSnapshot.getPair(from, to);
+            long         amount      = getMinorUnits(strAmount, objCurrent.objConverter.getMinorUnits(from));
+            long         converted   = objCurrent.objConverter.convert(from, to, amount, side);
+
+            if (converted == AmountConverter.NOT_AVAILABLE)
+            {
+                throw new IllegalArgumentException("No rate for " + strFrom + strTo);
+            }
+
+            strResult = BigDecimal.valueOf(converted, objCurrent.objConverter.getMinorUnits(to)).toPlainString();
+            rate      = (side == AmountConverter.SIDE_BID) ? objSnapshot.getBid(pair)
+                      : (side == AmountConverter.SIDE_ASK) ? objSnapshot.getAsk(pair) : objSnapshot.getRate(pair);
+        }
+        catch (ArithmeticException e)
+        {
+            strError = "The amount is too large";
+        }
+        catch (IllegalArgumentException e)
+        {
+            strError = e.getMessage();
+        }
+
+        if ((strError != null) && !isInline)
+        {
+            throw new IllegalArgumentException(strError);
+        }
+
+        outJson.beginObject();
+        outJson.name("from").value(strFrom);
+        outJson.name("to").value(strTo);
+        outJson.name("amount").value(strAmount);
+
+        if (strError != null)
+        {
+            outJson.name("error").value(strError);
+        }
+        else
+        {
+            outJson.name("result").value(strResult);
+            outJson.name("rate").value(rate);
+
+            if (!isInline)
+            {
+                outJson.name("refreshed").value(objCurrent.lngRefreshedAt);
+            }
+        }
+
+        outJson.endObject();
+        outJson.flush();
+    }
+
+    /**
+     * Get the position of a currency code in the currency table
+     *
+     * @param strCurrency - the currency code
+     * @return            - the position
+     * @throws IllegalArgumentException - if the code is missing or not in the table
+     */
+    private int getIndex(String strCurrency)
+    {
+        int index = objRegistry.getId(strCurrency);
+
+        if (index == CurrencyRegistry.NO_ID)
+        {
+            throw new IllegalArgumentException("Unknown currency " + strCurrency);
+        }
+
+        return index;
+    }
+
+    /**
+     * Get the side to convert at
+     *
+     * @param strSide - mid, bid, ask or null for mid
+     * @return        - one of the AmountConverter.SIDE_ constants
+     * @throws IllegalArgumentException - if the side is not one of the three
+     */
+    private static byte getSide(String strSide)
+    {
+        if ((strSide == null) || strSide.equals("mid"))
+        {
+            return AmountConverter.SIDE_MID;
+        }
+        else if (strSide.equals("bid"))
+        {
+            return AmountConverter.SIDE_BID;
+        }
+        else if (strSide.equals("ask"))
+        {
+            return AmountConverter.SIDE_ASK;
+        }
+
+        throw new IllegalArgumentException("Unknown side " + strSide);
+    }
+
+    /**
+     * Get a decimal amount in minor units, rounded half to even
+     *
+     * @param strAmount   - the amount, ie. "12.34"
+     * @param minorUnits  - the minor units digits of its currency
+     * @return            - the amount in minor units
+     * @throws IllegalArgumentException - if the amount is missing, too long or not a number
+     * @throws ArithmeticException      - if the amount does not fit in a long
+     */
+    private static long getMinorUnits(String strAmount, int minorUnits)
+    {
+        if (strAmount == null)
+        {
+            throw new IllegalArgumentException("Missing amount");
+        }
+
+        if (strAmount.length() > MAX_AMOUNT_LENGTH)
+        {
+            throw new IllegalArgumentException("Invalid amount, at most " + MAX_AMOUNT_LENGTH + " characters");
+        }
+
+        BigDecimal objAmount;
+
+        try
+        {
+            objAmount = new BigDecimal(strAmount);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Invalid amount " + strAmount);
+        }
+
+        if (objAmount.signum() == 0)
+        {
+            return 0;
+        }
+
+        // the digits left of the point are counted before scaling, an exponent such as 1e300000000
+        // would otherwise have the scaling build a number of that many digits on the request thread
+        long digits = (long) objAmount.precision() - objAmount.scale() + minorUnits;
+
+        if (digits > MAX_AMOUNT_DIGITS)
+        {
+            throw new ArithmeticException("The amount is too large");
+        }
+
+        // under a tenth of a minor unit always rounds to zero, however far right its digits go
+        if (digits < 0)
+        {
+            return 0;
+        }
+
+        return objAmount.movePointRight(minorUnits).setScale(0, RoundingMode.HALF_EVEN).longValueExact();
+    }
+
+    /**
+     * Parses a raw query string
+     *
+     * @param strQuery     - the query, without the '?', or null
+     * @return             - the decoded parameters, the last one wins when repeated
+     * @throws IOException - never, UTF-8 is always supported
+     */
+    private static HashMap<String, String> getQuery(String strQuery) throws IOException
+    {
+        HashMap<String, String> mapQuery = new HashMap<String, String>();
+
+        if (strQuery != null)
+        {
+            for (String strParameter : strQuery.split("&"))
+            {
+                int split = strParameter.indexOf('=');
+
+                if (split > 0)
+                {
+                    mapQuery.put(URLDecoder.decode(strParameter.substring(0, split), "UTF-8"), URLDecoder.decode(strParameter.substring(split + 1), "UTF-8"));
+                }
+            }
+        }
+
+        return mapQuery;
+    }
+
+    /**
+     * Sends an error as a JSON object
+     *
+     * @param objExchange  - the request and response
+     * @param status       - the HTTP status
+     * @param strMessage   - the error
+     * @throws IOException - if the response could not be sent
+     */
+    private static void sendError(HttpExchange objExchange, int status, String strMessage) throws IOException
+    {
+        StringWriter outBody = new StringWriter();
+
+        new JsonWriter(outBody).beginObject().name("error").value(strMessage).endObject().flush();
+        send(objExchange, status, TYPE_JSON, outBody.toString());
+    }
+
+    /**
+     * Sends a response, whatever is left of the request body is drained when the exchange is closed
+     *
+     * @param objExchange  - the request and response
+     * @param status       - the HTTP status
+     * @param strType      - the content type
+     * @param strBody      - the body
+     * @throws IOException - if the response could not be sent
+     */
+    private static void send(HttpExchange objExchange, int status, String strType, String strBody) throws IOException
+    {
+        byte[] aryBody = strBody.getBytes("UTF-8");
+
+        objExchange.getResponseHeaders().set("Content-Type", strType);
+        objExchange.sendResponseHeaders(status, aryBody.length);
+
+        OutputStream outStream = objExchange.getResponseBody();
+
+        outStream.write(aryBody);
+        outStream.close();
+    }
+
+    /**
+     * Builds the provider for a source name
+     *
+     * @param strSource - yahoo, or stub for made up rates without the network
+     * @return          - the provider
+     */
+    private static RateProvider newProvider(String strSource)
+    {
+        if (strSource.equals("stub"))
+        {
+            return new StubRateProvider(0);
+        }
+        else if (strSource.equals("yahoo"))
+        {
+            UrlTransport objTransport = new UrlTransport();
+
+            return new ChunkedRateProvider(
+                    new CompositeRateProvider(new YahooRateProvider(objTransport), new YahooRateProvider(objTransport), HEDGE_PERCENTILE),
+                    CHUNK_SIZE, CHUNK_PARALLELISM, CHUNK_ATTEMPTS);
+        }
+
+        throw new IllegalArgumentException("Unknown source " + strSource);
+    }
+
+    /**
+     * Builds a factory of named daemon threads
+     *
+     * @param strName - the prefix of the thread names
+     * @return        - the factory
+     */
+    private static ThreadFactory newThreadFactory(final String strName)
+    {
+        return new ThreadFactory()
+        {
+            private final AtomicInteger intThreads = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                Thread objThread = new Thread(runnable, strName + "-" + intThreads.incrementAndGet());
+                objThread.setDaemon(true);
+
+                return objThread;
+            }
+        };
+    }
+
+    // ------------------------------------------------------------------- private inner class
+    /**
+     * Rates
+     * ------------------------
+     *
+     * A snapshot and its fixed-point converter, built once per refresh and never changed after, so
+     * it is shared by every request without a lock
+     *
+     * @author  Michael Cunningham (http://michael-cunningham.ca)
+     * @since   October 18th, 2026
+     * @version v1.1
+     */
+    private static class Rates
+    {
+        private final RateSnapshot    objSnapshot;
+        private final AmountConverter objConverter;
+        private final long            lngRefreshedAt;
+
+        /**
+         * Constructs a new Rates object, fixing the snapshot's rates up front
+         *
+         * @param objSnapshot    - the snapshot
+         * @param lngRefreshedAt - the epoch milliseconds of the refresh
+         */
+        private Rates(RateSnapshot objSnapshot, long lngRefreshedAt)
+        {
+            this.objSnapshot    = objSnapshot;
+            this.objConverter   = new AmountConverter(objSnapshot);
+            this.lngRefreshedAt = lngRefreshedAt;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package ca.michael_cunningham.currencyconverter.server;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Random;
+import ca.michael_cunningham.currencyconverter.interfaces.RateProvider;
+import ca.michael_cunningham.currencyconverter.rates.RateSnapshot;
+
+/**
+ * StubRateProvider
+ * ------------------------
+ *
+ * A local source of made up, but plausible, rates for running the server without the network,
+ * ie. under the load generator. The app's currencies start near their real value against USD, any
+ * other at a value picked from its code, and every fetch moves each value a small random step, so
+ * refreshes really do change rates.
+ *
+ * @author  Michael Cunningham (http://michael-cunningham.ca)
+ * @since   October 18th, 2026
+ * @version v1.1
+ */
+public class StubRateProvider implements RateProvider
+{
+    // ------------------------------------------------------------------- private class constants
+    private static final double SPREAD     = 0.0002;
+    private static final double VOLATILITY = 0.0005;
+
+    private static final String[] START_CURRENCIES = { "USD", "AUD", "GBP", "JPY", "CAD", "EUR", "CHF" };
+    private static final double[] START_VALUES     = { 1, 1.52, 0.79, 149.8, 1.37, 0.92, 0.88 };
+
+    // ------------------------------------------------------------------- private global variables
+    private final HashMap<String, Double> mapValues;
+    private final Random                  objRandom;
+    private final long                    lngLatency;
+
+    // ------------------------------------------------------------------- constructors
+    /**
+     * Constructs a new StubRateProvider object
+     *
+     * @param lngLatency - the milliseconds every fetch takes, to stand in for the network
+     */
+    public StubRateProvider(long lngLatency)
+    {
+        this.mapValues  = new HashMap<String, Double>();
+        this.objRandom  = new Random(42);
+        this.lngLatency = lngLatency;
+
+        for (int i = 0; i < START_CURRENCIES.length; i++)
+        {
+            mapValues.put(START_CURRENCIES[i], START_VALUES[i]);
+        }
+    }
+
+    // ------------------------------------------------------------------- public methods
+    /**
+     * Quotes the given pairs from the current values, after moving every value one step
+     *
+     * @param aryCurrencies - the currency table the pairs index into
+     * @param aryPairs      - the pairs to fetch, each one (from * currency count + to)
+     * @return              - a builder holding a quote for every pair
+     * @throws IOException  - if interrupted while standing in for the network
+     */
+    @Override
+    public RateSnapshot.Builder fetch(String[] aryCurrencies, int[] aryPairs) throws IOException
+    {
+        if (lngLatency > 0)
+        {
+            try
+            {
+                Thread.sleep(lngLatency);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted");
+            }
+        }
+
+        int                  count      = aryCurrencies.length;
+        double[]             aryValues  = step(aryCurrencies);
+        long                 now        = System.currentTimeMillis();
+        RateSnapshot.Builder objBuilder = new RateSnapshot.Builder(aryCurrencies);
+
+        for (int pair : aryPairs)
+        {
+            int    from = pair / count;
+            int    to   = pair % count;
+            double rate = aryValues[to] / aryValues[from];
+
+            objBuilder.put(from, to, rate, rate * (1 + SPREAD), rate * (1 - SPREAD), now);
+        }
+
+        return objBuilder.setCreated(now);
+    }
+
+    // ------------------------------------------------------------------- private methods
+    /**
+     * Moves the value of every currency of the table one random step
+     *
+     * @param aryCurrencies - the currency table
+     * @return              - the new values, in units of each currency per USD
+     */
+    private synchronized double[] step(String[] aryCurrencies)
+    {
+        double[] aryValues = new double[aryCurrencies.length];
+
+        for (int i = 0; i < aryCurrencies.length; i++)
+        {
+            Double value = mapValues.get(aryCurrencies[i]);
+
+            if (value == null)
+            {
+                // the same code always starts at the same value
+                value = 0.2 + (new Random(aryCurrencies[i].hashCode()).nextDouble() * 150);
+            }
+            else if (!aryCurrencies[i].equals("USD"))
+            {
+                value *= 1 + (objRandom.nextGaussian() * VOLATILITY);
+            }
+
+            mapValues.put(aryCurrencies[i], value);
+            aryValues[i] = value;
+        }
+
+        return aryValues;
+    }
+}